@@ -66,6 +66,7 @@ dependencies {
     @Suppress("VulnerableLibrariesLocal", "RedundantSuppression")
     testImplementation(libs.spigot.api)
     testImplementation(libs.minecraft.next.spigot)
+    testImplementation(libs.h2)
 
     compileOnly(libs.lombok)
     annotationProcessor(libs.lombok)
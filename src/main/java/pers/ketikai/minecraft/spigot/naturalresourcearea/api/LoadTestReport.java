@@ -0,0 +1,73 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.api;
+
+import lombok.Data;
+import lombok.NonNull;
+
+@Data
+public class LoadTestReport {
+
+    private final int areas;
+
+    private final int size;
+
+    private final int rounds;
+
+    @NonNull
+    private final RefreshMode mode;
+
+    private final boolean queued;
+
+    private final long written;
+
+    private final long chunks;
+
+    private final long countdownActions;
+
+    private final long actions;
+
+    private final long aborted;
+
+    // 同步刷新为主线程耗时，队列刷新为从开始到完成的跨 tick 时长
+    private final long refreshDuration;
+
+    private final long allocated;
+
+    // 为 false 时服务端不提供 tick 耗时，baseline 与 load 退化为 tick 间隔
+    private final boolean mspt;
+
+    @NonNull
+    private final Ticks baseline;
+
+    @NonNull
+    private final Ticks load;
+
+    @Data
+    public static class Ticks {
+
+        private final long p50;
+
+        private final long p95;
+
+        private final long p99;
+
+        private final long max;
+    }
+}
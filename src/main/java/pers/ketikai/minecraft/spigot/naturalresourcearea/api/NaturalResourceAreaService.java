@@ -18,7 +18,10 @@
 
 package pers.ketikai.minecraft.spigot.naturalresourcearea.api;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.bukkit.entity.Player;
 import team.idealstate.sugar.validate.annotation.NotNull;
 import team.idealstate.sugar.validate.annotation.Nullable;
@@ -27,6 +30,15 @@ public interface NaturalResourceAreaService {
 
     boolean refresh(@NotNull String area);
 
+    @NotNull
+    CompletableFuture<RefreshReport> refreshAsync(@NotNull String area);
+
+    @NotNull
+    CompletableFuture<List<RefreshReport>> refresh(@NotNull Collection<String> areas);
+
+    @NotNull
+    CompletableFuture<List<RefreshReport>> refreshAll();
+
     boolean teleport(@NotNull Player player, @NotNull String area);
 
     @NotNull
@@ -34,4 +46,20 @@ public interface NaturalResourceAreaService {
 
     @Nullable
     Long getRefreshCountdown(@NotNull String area);
+
+    @Nullable
+    Long getResourceCount(@NotNull String area, @NotNull String resource);
+
+    @Nullable
+    Long getResourceTotal(@NotNull String area);
+
+    @NotNull
+    Map<String, Long> getResourceCounts(@NotNull String area);
+
+    @NotNull
+    CompletableFuture<RefreshEstimate> estimate(@NotNull String area);
+
+    @NotNull
+    CompletableFuture<LoadTestReport> loadTest(
+            int size, int count, int rounds, @NotNull RefreshMode mode, boolean queued);
 }
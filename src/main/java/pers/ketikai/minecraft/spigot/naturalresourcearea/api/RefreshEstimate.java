@@ -0,0 +1,54 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.api;
+
+import java.util.Map;
+import lombok.Data;
+import lombok.NonNull;
+import team.idealstate.sugar.validate.annotation.Nullable;
+
+@Data
+public class RefreshEstimate {
+
+    @NonNull
+    private final String area;
+
+    // 为 false 时区域内没有已加载的区块，实际刷新将被跳过
+    private final boolean loaded;
+
+    private final long scanned;
+
+    private final long written;
+
+    @NonNull
+    private final Map<String, Long> materials;
+
+    private final int chunks;
+
+    // 预估时跳过的未加载区块数
+    private final int unloadedChunks;
+
+    private final long scanDuration;
+
+    @Nullable
+    private final Long writeDuration;
+
+    // 刷新计划持有的内存（按对象大小估算）
+    private final long memory;
+}
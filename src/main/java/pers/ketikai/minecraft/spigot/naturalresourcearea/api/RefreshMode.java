@@ -20,5 +20,6 @@ package pers.ketikai.minecraft.spigot.naturalresourcearea.api;
 
 public enum RefreshMode {
     NORMAL,
-    FILL
+    FILL,
+    SPARSE
 }
@@ -27,18 +27,32 @@ import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.KeyDeserializer;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.ToString;
+import org.bukkit.boss.BarColor;
+import org.bukkit.boss.BarStyle;
+import org.bukkit.entity.EntityType;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.api.DisplayType;
 import pers.ketikai.minecraft.spigot.naturalresourcearea.api.PlayerSelector;
 import pers.ketikai.minecraft.spigot.naturalresourcearea.api.RefreshMode;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.api.RegionShape;
+import team.idealstate.sugar.logging.Log;
 import team.idealstate.sugar.next.context.Context;
 import team.idealstate.sugar.next.context.annotation.component.Configuration;
 import team.idealstate.sugar.next.context.annotation.feature.Scope;
 import team.idealstate.sugar.validate.Validation;
 import team.idealstate.sugar.validate.annotation.NotNull;
+import team.idealstate.sugar.validate.annotation.Nullable;
 
 @Data
 @Configuration(uri = "config.yml", release = Context.RESOURCE_EMBEDDED + "config.yml")
@@ -54,6 +68,37 @@ public class NaturalResourceAreaConfiguration {
     @JsonDeserialize(keyAs = String.class, contentAs = Area.class)
     private final Map<String, Area> areas;
 
+    @Nullable
+    private final Synchronization synchronization;
+
+    @Data
+    public static class Synchronization {
+
+        @NonNull
+        private final Boolean enabled;
+
+        @NonNull
+        private final String server;
+
+        @NonNull
+        private final String url;
+
+        @Nullable
+        private final String username;
+
+        @Nullable
+        private final String password;
+
+        @NonNull
+        private final String table;
+
+        @NonNull
+        private final Integer lease;
+
+        @NonNull
+        private final Integer interval;
+    }
+
     @Data
     public static class Area {
 
@@ -79,6 +124,25 @@ public class NaturalResourceAreaConfiguration {
         @NonNull
         @JsonDeserialize(keyUsing = BlockKeyDeserializer.class, contentAs = Double.class)
         private final Map<Block, Double> resources;
+
+        @Nullable
+        private final Display display;
+    }
+
+    @Data
+    public static class Display {
+
+        @NonNull
+        private final DisplayType type;
+
+        @NonNull
+        private final String text;
+
+        @Nullable
+        private final BarColor color;
+
+        @Nullable
+        private final BarStyle style;
     }
 
     @Data
@@ -130,6 +194,26 @@ public class NaturalResourceAreaConfiguration {
         @NonNull
         @JsonDeserialize(contentAs = Action.class)
         private final List<Action> finish;
+
+        @Nullable
+        @JsonDeserialize(using = EntityTypesDeserializer.class)
+        private final Set<EntityType> cleanup;
+
+        @Nullable
+        private final Depletion depletion;
+    }
+
+    @Data
+    public static class Depletion {
+
+        @NonNull
+        private final Double threshold;
+
+        @NonNull
+        private final Integer minimum;
+
+        @NonNull
+        private final Double skip;
     }
 
     @Data
@@ -156,15 +240,106 @@ public class NaturalResourceAreaConfiguration {
         }
     }
 
+    // 实体类型在 1.20.5 起部分改名（如 DROPPED_ITEM 改为 ITEM），新旧名称均可使用，无法识别的名称跳过并警告
+    public static class EntityTypesDeserializer extends JsonDeserializer<Set<EntityType>> {
+        private static final Map<String, String> ALIASES = new HashMap<>();
+
+        static {
+            alias("DROPPED_ITEM", "ITEM");
+            alias("THROWN_EXP_BOTTLE", "EXPERIENCE_BOTTLE");
+            alias("PRIMED_TNT", "TNT");
+            alias("FIREWORK", "FIREWORK_ROCKET");
+            alias("ENDER_SIGNAL", "EYE_OF_ENDER");
+            alias("ENDER_CRYSTAL", "END_CRYSTAL");
+            alias("SPLASH_POTION", "POTION");
+            alias("LEASH_HITCH", "LEASH_KNOT");
+            alias("FISHING_HOOK", "FISHING_BOBBER");
+            alias("LIGHTNING", "LIGHTNING_BOLT");
+            alias("MUSHROOM_COW", "MOOSHROOM");
+            alias("SNOWMAN", "SNOW_GOLEM");
+            alias("MINECART_CHEST", "CHEST_MINECART");
+            alias("MINECART_FURNACE", "FURNACE_MINECART");
+            alias("MINECART_HOPPER", "HOPPER_MINECART");
+            alias("MINECART_TNT", "TNT_MINECART");
+            alias("MINECART_MOB_SPAWNER", "SPAWNER_MINECART");
+            alias("MINECART_COMMAND", "COMMAND_BLOCK_MINECART");
+        }
+
+        private static void alias(String legacy, String modern) {
+            ALIASES.put(legacy, modern);
+            ALIASES.put(modern, legacy);
+        }
+
+        @Override
+        public Set<EntityType> deserialize(JsonParser p, DeserializationContext ctxt)
+                throws IOException, JacksonException {
+            String[] names = ctxt.readValue(p, String[].class);
+            Set<EntityType> types = EnumSet.noneOf(EntityType.class);
+            for (String name : names) {
+                EntityType type = parse(name.trim().toUpperCase(Locale.ROOT));
+                if (type == null) {
+                    Log.warn("未知的实体类型，已跳过：" + name);
+                } else {
+                    types.add(type);
+                }
+            }
+            return types;
+        }
+
+        @Nullable
+        static EntityType parse(@NotNull String name) {
+            EntityType type = valueOf(name);
+            if (type == null && ALIASES.containsKey(name)) {
+                type = valueOf(ALIASES.get(name));
+            }
+            return type;
+        }
+
+        @Nullable
+        private static EntityType valueOf(@NotNull String name) {
+            try {
+                return EntityType.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
     @Data
     public static class Region {
 
         @NonNull
+        private final RegionShape shape;
+
+        @Nullable
         private final Location first;
 
-        @NonNull
+        @Nullable
         private final Location second;
 
+        @Nullable
+        @JsonDeserialize(contentAs = Point.class)
+        private final List<Point> points;
+
+        @Nullable
+        private final Integer floor;
+
+        @Nullable
+        private final Integer ceiling;
+
+        @Nullable
+        private final Location center;
+
+        @Nullable
+        private final Double radius;
+
+        @Nullable
+        private final Integer height;
+
+        @Nullable
+        @JsonDeserialize(contentAs = Box.class)
+        private final List<Box> boxes;
+
         @NonNull
         @JsonIgnore
         private final Integer minX;
@@ -189,18 +364,361 @@ public class NaturalResourceAreaConfiguration {
         @JsonIgnore
         private final Integer maxZ;
 
-        @JsonCreator
+        // 按列（x, z）压缩存储的 Y 区间：columns[i] 至 columns[i + 1] 为第 i 列在 ranges 中的区间下标，
+        // ranges 中每两个元素为一段闭区间；长方体区域不生成列掩码，columns 为 null
+        @JsonIgnore
+        @Getter(AccessLevel.NONE)
+        @ToString.Exclude
+        private final int[] columns;
+
+        @JsonIgnore
+        @Getter(AccessLevel.NONE)
+        @ToString.Exclude
+        private final int[] ranges;
+
         public Region(@NonNull Location first, @NonNull Location second) {
-            Validation.notNull(first, "first must not be null");
-            Validation.notNull(second, "second must not be null");
+            this(RegionShape.CUBOID, first, second, null, null, null, null, null, null, null);
+        }
+
+        @JsonCreator
+        public Region(
+                @Nullable RegionShape shape,
+                @Nullable Location first,
+                @Nullable Location second,
+                @Nullable List<Point> points,
+                @Nullable Integer floor,
+                @Nullable Integer ceiling,
+                @Nullable Location center,
+                @Nullable Double radius,
+                @Nullable Integer height,
+                @Nullable List<Box> boxes) {
+            this.shape = shape == null ? RegionShape.CUBOID : shape;
             this.first = first;
             this.second = second;
-            this.minX = Math.min(first.getX(), second.getX());
-            this.maxX = Math.max(first.getX(), second.getX());
-            this.minY = Math.min(first.getY(), second.getY());
-            this.maxY = Math.max(first.getY(), second.getY());
-            this.minZ = Math.min(first.getZ(), second.getZ());
-            this.maxZ = Math.max(first.getZ(), second.getZ());
+            this.points = points;
+            this.floor = floor;
+            this.ceiling = ceiling;
+            this.center = center;
+            this.radius = radius;
+            this.height = height;
+            this.boxes = boxes;
+            switch (this.shape) {
+                case POLYGON: {
+                    Validation.notNull(points, "points must not be null");
+                    Validation.notNull(floor, "floor must not be null");
+                    Validation.notNull(ceiling, "ceiling must not be null");
+                    if (points.size() < 3) {
+                        throw new IllegalArgumentException("points must contain at least 3 points");
+                    }
+                    int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+                    int minZ = Integer.MAX_VALUE, maxZ = Integer.MIN_VALUE;
+                    for (Point point : points) {
+                        minX = Math.min(minX, point.getX());
+                        maxX = Math.max(maxX, point.getX());
+                        minZ = Math.min(minZ, point.getZ());
+                        maxZ = Math.max(maxZ, point.getZ());
+                    }
+                    this.minX = minX;
+                    this.maxX = maxX;
+                    this.minY = Math.min(floor, ceiling);
+                    this.maxY = Math.max(floor, ceiling);
+                    this.minZ = minZ;
+                    this.maxZ = maxZ;
+                    break;
+                }
+                case CYLINDER: {
+                    Validation.notNull(center, "center must not be null");
+                    Validation.notNull(radius, "radius must not be null");
+                    Validation.notNull(height, "height must not be null");
+                    int r = (int) Math.floor(radius);
+                    this.minX = center.getX() - r;
+                    this.maxX = center.getX() + r;
+                    this.minY = center.getY();
+                    this.maxY = center.getY() + Math.max(height, 1) - 1;
+                    this.minZ = center.getZ() - r;
+                    this.maxZ = center.getZ() + r;
+                    break;
+                }
+                case SPHERE: {
+                    Validation.notNull(center, "center must not be null");
+                    Validation.notNull(radius, "radius must not be null");
+                    int r = (int) Math.floor(radius);
+                    this.minX = center.getX() - r;
+                    this.maxX = center.getX() + r;
+                    this.minY = center.getY() - r;
+                    this.maxY = center.getY() + r;
+                    this.minZ = center.getZ() - r;
+                    this.maxZ = center.getZ() + r;
+                    break;
+                }
+                case UNION: {
+                    Validation.notNull(boxes, "boxes must not be null");
+                    if (boxes.isEmpty()) {
+                        throw new IllegalArgumentException("boxes must not be empty");
+                    }
+                    int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+                    int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+                    int minZ = Integer.MAX_VALUE, maxZ = Integer.MIN_VALUE;
+                    for (Box box : boxes) {
+                        minX = Math.min(minX, box.getMinX());
+                        maxX = Math.max(maxX, box.getMaxX());
+                        minY = Math.min(minY, box.getMinY());
+                        maxY = Math.max(maxY, box.getMaxY());
+                        minZ = Math.min(minZ, box.getMinZ());
+                        maxZ = Math.max(maxZ, box.getMaxZ());
+                    }
+                    this.minX = minX;
+                    this.maxX = maxX;
+                    this.minY = minY;
+                    this.maxY = maxY;
+                    this.minZ = minZ;
+                    this.maxZ = maxZ;
+                    break;
+                }
+                default: {
+                    Validation.notNull(first, "first must not be null");
+                    Validation.notNull(second, "second must not be null");
+                    this.minX = Math.min(first.getX(), second.getX());
+                    this.maxX = Math.max(first.getX(), second.getX());
+                    this.minY = Math.min(first.getY(), second.getY());
+                    this.maxY = Math.max(first.getY(), second.getY());
+                    this.minZ = Math.min(first.getZ(), second.getZ());
+                    this.maxZ = Math.max(first.getZ(), second.getZ());
+                    break;
+                }
+            }
+            if (RegionShape.CUBOID.equals(this.shape)) {
+                this.columns = null;
+                this.ranges = new int[] {this.minY, this.maxY};
+            } else {
+                int minX = this.minX;
+                int maxX = this.maxX;
+                int minZ = this.minZ;
+                int maxZ = this.maxZ;
+                int depth = maxZ - minZ + 1;
+                int[] columns = new int[(maxX - minX + 1) * depth + 1];
+                int[] ranges = new int[16];
+                int size = 0;
+                int[] column = new int[16];
+                for (int x = minX; x <= maxX; x++) {
+                    for (int z = minZ; z <= maxZ; z++) {
+                        column = column(x, z, column);
+                        int count = column[0];
+                        if (size + count * 2 > ranges.length) {
+                            ranges = Arrays.copyOf(ranges, Math.max(ranges.length * 2, size + count * 2));
+                        }
+                        System.arraycopy(column, 1, ranges, size, count * 2);
+                        size += count * 2;
+                        columns[(x - minX) * depth + (z - minZ) + 1] = size;
+                    }
+                }
+                this.columns = columns;
+                this.ranges = Arrays.copyOf(ranges, size);
+            }
+        }
+
+        // 计算单列的 Y 区间，结果写入 buffer：buffer[0] 为区间数量，其后依次为各区间的起止 Y
+        private int[] column(int x, int z, int[] buffer) {
+            buffer[0] = 0;
+            switch (shape) {
+                case POLYGON: {
+                    if (containsPoint(x, z)) {
+                        buffer = append(buffer, minY, maxY);
+                    }
+                    break;
+                }
+                case CYLINDER: {
+                    long dx = x - center.getX();
+                    long dz = z - center.getZ();
+                    if (dx * dx + dz * dz <= radius * radius) {
+                        buffer = append(buffer, minY, maxY);
+                    }
+                    break;
+                }
+                case SPHERE: {
+                    long dx = x - center.getX();
+                    long dz = z - center.getZ();
+                    double rest = radius * radius - (dx * dx + dz * dz);
+                    if (rest >= 0.0) {
+                        int dy = (int) Math.floor(Math.sqrt(rest));
+                        buffer = append(buffer, center.getY() - dy, center.getY() + dy);
+                    }
+                    break;
+                }
+                case UNION: {
+                    for (Box box : boxes) {
+                        if (x < box.getMinX() || x > box.getMaxX() || z < box.getMinZ() || z > box.getMaxZ()) {
+                            continue;
+                        }
+                        buffer = merge(buffer, box.getMinY(), box.getMaxY());
+                    }
+                    break;
+                }
+                default:
+                    buffer = append(buffer, minY, maxY);
+                    break;
+            }
+            return buffer;
+        }
+
+        // 与 CUBOID 的两角一致，顶点与边上的方块均包含在内
+        private boolean containsPoint(int x, int z) {
+            boolean inside = false;
+            for (int i = 0, j = points.size() - 1; i < points.size(); j = i++) {
+                Point pi = points.get(i);
+                Point pj = points.get(j);
+                long cross = (long) (pj.getX() - pi.getX()) * (z - pi.getZ())
+                        - (long) (pj.getZ() - pi.getZ()) * (x - pi.getX());
+                if (cross == 0L
+                        && x >= Math.min(pi.getX(), pj.getX())
+                        && x <= Math.max(pi.getX(), pj.getX())
+                        && z >= Math.min(pi.getZ(), pj.getZ())
+                        && z <= Math.max(pi.getZ(), pj.getZ())) {
+                    return true;
+                }
+                if ((pi.getZ() > z) == (pj.getZ() > z)) {
+                    continue;
+                }
+                double crossX =
+                        (double) (pj.getX() - pi.getX()) * (z - pi.getZ()) / (pj.getZ() - pi.getZ()) + pi.getX();
+                if (x < crossX) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }
+
+        private static int[] append(int[] buffer, int from, int to) {
+            int count = buffer[0];
+            if (count * 2 + 3 > buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[count * 2 + 1] = from;
+            buffer[count * 2 + 2] = to;
+            buffer[0] = count + 1;
+            return buffer;
+        }
+
+        // 将区间并入按起点排序且互不相交的区间列表
+        private static int[] merge(int[] buffer, int from, int to) {
+            int count = buffer[0];
+            int[] merged = new int[Math.max(buffer.length, count * 2 + 3)];
+            int size = 0;
+            boolean inserted = false;
+            for (int i = 0; i < count; i++) {
+                int a = buffer[i * 2 + 1];
+                int b = buffer[i * 2 + 2];
+                if (b < from - 1) {
+                    merged[size * 2 + 1] = a;
+                    merged[size * 2 + 2] = b;
+                    size++;
+                } else if (a > to + 1) {
+                    if (!inserted) {
+                        merged[size * 2 + 1] = from;
+                        merged[size * 2 + 2] = to;
+                        size++;
+                        inserted = true;
+                    }
+                    merged[size * 2 + 1] = a;
+                    merged[size * 2 + 2] = b;
+                    size++;
+                } else {
+                    from = Math.min(from, a);
+                    to = Math.max(to, b);
+                }
+            }
+            if (!inserted) {
+                merged[size * 2 + 1] = from;
+                merged[size * 2 + 2] = to;
+                size++;
+            }
+            merged[0] = size;
+            return merged;
+        }
+
+        public int getRangeStart(int x, int z) {
+            return columns == null ? 0 : columns[(x - minX) * (maxZ - minZ + 1) + (z - minZ)];
+        }
+
+        public int getRangeEnd(int x, int z) {
+            return columns == null ? 2 : columns[(x - minX) * (maxZ - minZ + 1) + (z - minZ) + 1];
+        }
+
+        public int getRange(int index) {
+            return ranges[index];
+        }
+
+        public boolean contains(int x, int y, int z) {
+            if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) {
+                return false;
+            }
+            if (columns == null) {
+                return true;
+            }
+            int end = getRangeEnd(x, z);
+            for (int i = getRangeStart(x, z); i < end; i += 2) {
+                if (y >= ranges[i] && y <= ranges[i + 1]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public boolean contains(double x, double y, double z) {
+            return contains((int) Math.floor(x), (int) Math.floor(y), (int) Math.floor(z));
+        }
+    }
+
+    @Data
+    public static class Box {
+
+        @NonNull
+        private final Location first;
+
+        @NonNull
+        private final Location second;
+
+        public int getMinX() {
+            return Math.min(first.getX(), second.getX());
+        }
+
+        public int getMaxX() {
+            return Math.max(first.getX(), second.getX());
+        }
+
+        public int getMinY() {
+            return Math.min(first.getY(), second.getY());
+        }
+
+        public int getMaxY() {
+            return Math.max(first.getY(), second.getY());
+        }
+
+        public int getMinZ() {
+            return Math.min(first.getZ(), second.getZ());
+        }
+
+        public int getMaxZ() {
+            return Math.max(first.getZ(), second.getZ());
+        }
+    }
+
+    @Data
+    @JsonDeserialize(using = PointDeserializer.class)
+    public static class Point {
+
+        @NonNull
+        private final Integer x;
+
+        @NonNull
+        private final Integer z;
+    }
+
+    public static class PointDeserializer extends JsonDeserializer<Point> {
+        @Override
+        public Point deserialize(JsonParser p, DeserializationContext ctxt) throws IOException, JacksonException {
+            String[] split = p.getValueAsString().split(",");
+            return new Point(Integer.parseInt(split[0].trim()), Integer.parseInt(split[1].trim()));
         }
     }
 
@@ -18,11 +18,18 @@
 
 package pers.ketikai.minecraft.spigot.naturalresourcearea.controller;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.api.LoadTestReport;
 import pers.ketikai.minecraft.spigot.naturalresourcearea.api.NaturalResourceAreaService;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.api.RefreshEstimate;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.api.RefreshMode;
 import pers.ketikai.minecraft.spigot.naturalresourcearea.configuration.NaturalResourceAreaConfiguration;
 import team.idealstate.sugar.logging.Log;
 import team.idealstate.sugar.next.command.Command;
@@ -38,10 +45,13 @@ import team.idealstate.sugar.next.context.annotation.feature.Autowired;
 import team.idealstate.sugar.next.context.aware.ContextAware;
 import team.idealstate.sugar.validate.Validation;
 import team.idealstate.sugar.validate.annotation.NotNull;
+import team.idealstate.sugar.validate.annotation.Nullable;
 
 @Controller(name = "natural-resource-area")
 public class NaturalResourceAreaController implements Command, ContextAware {
 
+    private static final List<String> STRATEGIES = Arrays.asList("sync", "queued");
+
     private volatile Context context;
 
     @CommandHandler
@@ -107,6 +117,175 @@ public class NaturalResourceAreaController implements Command, ContextAware {
         return CommandResult.success("已完成区域刷新");
     }
 
+    @CommandHandler(value = "estimate {area}")
+    @NotNull
+    public CommandResult estimate(
+            @NotNull CommandContext context, @NotNull @CommandArgument(completer = "completeArea") String area) {
+        CommandSender sender = context.getSender();
+        try {
+            service.estimate(area).whenComplete((estimate, e) -> {
+                org.bukkit.command.CommandSender bukkit = bukkitSender(sender);
+                if (bukkit == null) {
+                    return;
+                }
+                if (e != null) {
+                    bukkit.sendMessage("未能预估区域刷新，错误信息请查看日志输出。");
+                    return;
+                }
+                if (estimate == null) {
+                    bukkit.sendMessage("区域不存在或其所在世界未加载。");
+                    return;
+                }
+                bukkit.sendMessage(estimateMessage(area, estimate));
+            });
+        } catch (Throwable e) {
+            Log.error(e);
+            return CommandResult.failure("未能预估区域刷新，错误信息请查看日志输出。");
+        }
+        return CommandResult.success("已开始预估区域刷新，扫描将分摊到多个 tick，完成后将发送结果。");
+    }
+
+    @NotNull
+    private static String estimateMessage(@NotNull String area, @NotNull RefreshEstimate estimate) {
+        StringBuilder message = new StringBuilder();
+        message.append("区域 ").append(area).append(" 刷新预估：\n");
+        message.append("扫描方块：").append(estimate.getScanned()).append('\n');
+        message.append("写入方块：").append(estimate.getWritten()).append('\n');
+        for (Map.Entry<String, Long> entry : estimate.getMaterials().entrySet()) {
+            message.append("  ")
+                    .append(entry.getKey())
+                    .append("：")
+                    .append(entry.getValue())
+                    .append('\n');
+        }
+        message.append("涉及区块：").append(estimate.getChunks()).append('\n');
+        message.append("未加载区块（已跳过）：").append(estimate.getUnloadedChunks()).append('\n');
+        if (!estimate.isLoaded()) {
+            message.append("区域内没有已加载的区块，实际刷新将被跳过。\n");
+        }
+        message.append("扫描耗时（主线程累计）：")
+                .append(TimeUnit.NANOSECONDS.toMillis(estimate.getScanDuration()))
+                .append(" ms\n");
+        Long writeDuration = estimate.getWriteDuration();
+        message.append("预计写入耗时：")
+                .append(writeDuration == null ? "暂无写入速率数据" : TimeUnit.NANOSECONDS.toMillis(writeDuration) + " ms")
+                .append('\n');
+        message.append("计划内存（估算）：").append(estimate.getMemory() / 1024L).append(" KiB");
+        return message.toString();
+    }
+
+    @CommandHandler(value = "resources {area}", open = true)
+    @NotNull
+    public CommandResult resources(
+            @NotNull CommandContext context, @NotNull @CommandArgument(completer = "completeArea") String area) {
+        Map<String, Long> counts;
+        try {
+            counts = service.getResourceCounts(area);
+        } catch (Throwable e) {
+            Log.error(e);
+            return CommandResult.failure("未能获取区域资源存量，错误信息请查看日志输出。");
+        }
+        if (counts.isEmpty()) {
+            return CommandResult.failure("区域不存在或尚未完成刷新。");
+        }
+        StringBuilder message = new StringBuilder();
+        message.append("区域 ").append(area).append(" 资源存量：");
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            message.append("\n  ").append(entry.getKey()).append("：").append(entry.getValue());
+        }
+        return CommandResult.success(message.toString());
+    }
+
+    @CommandHandler(value = "loadtest {size} {count} {rounds} {mode} {strategy}")
+    @NotNull
+    public CommandResult loadTest(
+            @NotNull CommandContext context,
+            @NotNull @CommandArgument String size,
+            @NotNull @CommandArgument String count,
+            @NotNull @CommandArgument String rounds,
+            @NotNull @CommandArgument(completer = "completeMode") String mode,
+            @NotNull @CommandArgument(completer = "completeStrategy") String strategy) {
+        CommandSender sender = context.getSender();
+        RefreshMode mode1;
+        try {
+            mode1 = RefreshMode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return CommandResult.failure("刷新模式必须为 " + Arrays.toString(RefreshMode.values()) + " 之一。");
+        }
+        if (!STRATEGIES.contains(strategy.toLowerCase(Locale.ROOT))) {
+            return CommandResult.failure("刷新方式必须为 sync 或 queued。");
+        }
+        boolean queued = "queued".equalsIgnoreCase(strategy);
+        try {
+            service.loadTest(Integer.parseInt(size), Integer.parseInt(count), Integer.parseInt(rounds), mode1, queued)
+                    .whenComplete((report, e) -> {
+                        org.bukkit.command.CommandSender bukkit = bukkitSender(sender);
+                        if (bukkit == null) {
+                            return;
+                        }
+                        if (e != null) {
+                            bukkit.sendMessage("压力测试失败，错误信息请查看日志输出。");
+                            return;
+                        }
+                        bukkit.sendMessage(loadTestMessage(report));
+                    });
+        } catch (NumberFormatException e) {
+            return CommandResult.failure("参数必须为整数：loadtest <边长> <数量> <轮数> <模式> <sync|queued>");
+        } catch (Throwable e) {
+            Log.error(e);
+            return CommandResult.failure("未能开始压力测试，错误信息请查看日志输出。");
+        }
+        return CommandResult.success("已开始压力测试，完成后将发送报告。");
+    }
+
+    @Nullable
+    private static org.bukkit.command.CommandSender bukkitSender(@NotNull CommandSender sender) {
+        return sender.isConsole() ? Bukkit.getConsoleSender() : Bukkit.getPlayer(sender.getUniqueId());
+    }
+
+    @NotNull
+    private static String loadTestMessage(@NotNull LoadTestReport report) {
+        StringBuilder message = new StringBuilder();
+        message.append("压力测试报告（")
+                .append(report.getAreas())
+                .append(" 个区域，边长 ")
+                .append(report.getSize())
+                .append("，")
+                .append(report.getRounds())
+                .append(" 轮，")
+                .append(report.getMode())
+                .append(report.isQueued() ? "，队列刷新" : "，同步刷新")
+                .append("）：\n");
+        String ticks = report.isMspt() ? " MSPT：" : " tick 间隔（服务端不提供 tick 耗时）：";
+        message.append("基准").append(ticks).append(ticksMessage(report.getBaseline())).append('\n');
+        message.append("负载").append(ticks).append(ticksMessage(report.getLoad())).append('\n');
+        message.append(report.isQueued() ? "刷新总时长（跨 tick）：" : "刷新耗时：")
+                .append(TimeUnit.NANOSECONDS.toMillis(report.getRefreshDuration()))
+                .append(" ms\n");
+        message.append("内存分配：")
+                .append(report.getAllocated() < 0L ? "不支持统计" : report.getAllocated() / 1024L + " KiB")
+                .append('\n');
+        message.append("方块更新：")
+                .append(report.getWritten())
+                .append("（区块批次 ")
+                .append(report.getChunks())
+                .append("）\n");
+        message.append("中止刷新：").append(report.getAborted()).append('\n');
+        message.append("倒计时动作：").append(report.getCountdownActions()).append('\n');
+        message.append("完成动作：").append(report.getActions());
+        return message.toString();
+    }
+
+    @NotNull
+    private static String ticksMessage(@NotNull LoadTestReport.Ticks ticks) {
+        return String.format(
+                "p50 %.1f ms / p95 %.1f ms / p99 %.1f ms / max %.1f ms",
+                ticks.getP50() / 1_000_000.0,
+                ticks.getP95() / 1_000_000.0,
+                ticks.getP99() / 1_000_000.0,
+                ticks.getMax() / 1_000_000.0);
+    }
+
     @CommandHandler(value = "teleport {area}", open = true)
     @NotNull
     public CommandResult teleport(
@@ -126,6 +305,21 @@ public class NaturalResourceAreaController implements Command, ContextAware {
         return CommandResult.success();
     }
 
+    @NotNull
+    public List<String> completeMode(@NotNull CommandContext context, @NotNull String argument) {
+        return Arrays.stream(RefreshMode.values())
+                .map(Enum::name)
+                .filter((s) -> s.toLowerCase().startsWith(argument.toLowerCase()))
+                .collect(Collectors.toList());
+    }
+
+    @NotNull
+    public List<String> completeStrategy(@NotNull CommandContext context, @NotNull String argument) {
+        return STRATEGIES.stream()
+                .filter((s) -> s.startsWith(argument.toLowerCase()))
+                .collect(Collectors.toList());
+    }
+
     @NotNull
     public List<String> completeArea(@NotNull CommandContext context, @NotNull String argument) {
         return argument.isEmpty()
@@ -0,0 +1,43 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.event;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import team.idealstate.sugar.validate.Validation;
+import team.idealstate.sugar.validate.annotation.NotNull;
+
+public abstract class NaturalResourceAreaEvent extends Event {
+
+    private final String area;
+
+    protected NaturalResourceAreaEvent(@NotNull String area) {
+        Validation.notNullOrBlank(area, "area must not be null or blank.");
+        this.area = area;
+    }
+
+    @NotNull
+    public String getArea() {
+        return area;
+    }
+
+    public static boolean isListened(@NotNull HandlerList handlers) {
+        return handlers.getRegisteredListeners().length != 0;
+    }
+}
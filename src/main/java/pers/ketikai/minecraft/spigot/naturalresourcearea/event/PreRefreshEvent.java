@@ -0,0 +1,61 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.event;
+
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.HandlerList;
+import team.idealstate.sugar.validate.annotation.NotNull;
+
+public class PreRefreshEvent extends NaturalResourceAreaEvent implements Cancellable {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final boolean forced;
+    private boolean cancelled = false;
+
+    public PreRefreshEvent(@NotNull String area, boolean forced) {
+        super(area);
+        this.forced = forced;
+    }
+
+    public boolean isForced() {
+        return forced;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    @NotNull
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    @NotNull
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
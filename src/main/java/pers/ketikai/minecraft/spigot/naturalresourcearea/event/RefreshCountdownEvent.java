@@ -0,0 +1,49 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.event;
+
+import org.bukkit.event.HandlerList;
+import team.idealstate.sugar.validate.annotation.NotNull;
+
+public class RefreshCountdownEvent extends NaturalResourceAreaEvent {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final long countdown;
+
+    public RefreshCountdownEvent(@NotNull String area, long countdown) {
+        super(area);
+        this.countdown = countdown;
+    }
+
+    public long getCountdown() {
+        return countdown;
+    }
+
+    @NotNull
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    @NotNull
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -45,6 +45,107 @@ public class NaturalResourceAreaPlaceholder implements Placeholder {
         return CommandResult.failure();
     }
 
+    // 变量标识中的下划线会被拆分为参数，方块 ID（如 minecraft:diamond_ore）因此被拆成多段，
+    // 按段数分别注册后重新以下划线拼接
+    @CommandHandler(value = "resource count {area} {resource0}", open = true)
+    @NotNull
+    public CommandResult resourceCount(
+            @NotNull CommandContext context,
+            @NotNull @CommandArgument String area,
+            @NotNull @CommandArgument String resource0) {
+        return count(area, resourceKey(resource0));
+    }
+
+    @CommandHandler(value = "resource count {area} {resource0} {resource1}", open = true)
+    @NotNull
+    public CommandResult resourceCount2(
+            @NotNull CommandContext context,
+            @NotNull @CommandArgument String area,
+            @NotNull @CommandArgument String resource0,
+            @NotNull @CommandArgument String resource1) {
+        return count(area, resourceKey(resource0, resource1));
+    }
+
+    @CommandHandler(value = "resource count {area} {resource0} {resource1} {resource2}", open = true)
+    @NotNull
+    public CommandResult resourceCount3(
+            @NotNull CommandContext context,
+            @NotNull @CommandArgument String area,
+            @NotNull @CommandArgument String resource0,
+            @NotNull @CommandArgument String resource1,
+            @NotNull @CommandArgument String resource2) {
+        return count(area, resourceKey(resource0, resource1, resource2));
+    }
+
+    @CommandHandler(value = "resource count {area} {resource0} {resource1} {resource2} {resource3}", open = true)
+    @NotNull
+    public CommandResult resourceCount4(
+            @NotNull CommandContext context,
+            @NotNull @CommandArgument String area,
+            @NotNull @CommandArgument String resource0,
+            @NotNull @CommandArgument String resource1,
+            @NotNull @CommandArgument String resource2,
+            @NotNull @CommandArgument String resource3) {
+        return count(area, resourceKey(resource0, resource1, resource2, resource3));
+    }
+
+    @CommandHandler(
+            value = "resource count {area} {resource0} {resource1} {resource2} {resource3} {resource4}",
+            open = true)
+    @NotNull
+    public CommandResult resourceCount5(
+            @NotNull CommandContext context,
+            @NotNull @CommandArgument String area,
+            @NotNull @CommandArgument String resource0,
+            @NotNull @CommandArgument String resource1,
+            @NotNull @CommandArgument String resource2,
+            @NotNull @CommandArgument String resource3,
+            @NotNull @CommandArgument String resource4) {
+        return count(area, resourceKey(resource0, resource1, resource2, resource3, resource4));
+    }
+
+    @CommandHandler(
+            value = "resource count {area} {resource0} {resource1} {resource2} {resource3} {resource4} {resource5}",
+            open = true)
+    @NotNull
+    public CommandResult resourceCount6(
+            @NotNull CommandContext context,
+            @NotNull @CommandArgument String area,
+            @NotNull @CommandArgument String resource0,
+            @NotNull @CommandArgument String resource1,
+            @NotNull @CommandArgument String resource2,
+            @NotNull @CommandArgument String resource3,
+            @NotNull @CommandArgument String resource4,
+            @NotNull @CommandArgument String resource5) {
+        return count(area, resourceKey(resource0, resource1, resource2, resource3, resource4, resource5));
+    }
+
+    @NotNull
+    private CommandResult count(@NotNull String area, @NotNull String resource) {
+        try {
+            return CommandResult.success(String.valueOf(service.getResourceCount(area, resource)));
+        } catch (Throwable e) {
+            Log.error(e);
+        }
+        return CommandResult.failure();
+    }
+
+    @NotNull
+    static String resourceKey(@NotNull String... parts) {
+        return String.join("_", parts);
+    }
+
+    @CommandHandler(value = "resource total {area}", open = true)
+    @NotNull
+    public CommandResult resourceTotal(@NotNull CommandContext context, @NotNull @CommandArgument String area) {
+        try {
+            return CommandResult.success(String.valueOf(service.getResourceTotal(area)));
+        } catch (Throwable e) {
+            Log.error(e);
+        }
+        return CommandResult.failure();
+    }
+
     private volatile NaturalResourceAreaService service;
 
     @Autowired
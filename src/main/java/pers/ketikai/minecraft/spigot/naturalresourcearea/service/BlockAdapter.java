@@ -0,0 +1,81 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bukkit.block.Block;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.configuration.NaturalResourceAreaConfiguration;
+import team.idealstate.sugar.validate.annotation.NotNull;
+import team.idealstate.sugar.validate.annotation.Nullable;
+
+// 按服务端版本选择方块读写方式：1.13 及以上使用 BlockData，旧版本使用材质与数据值
+abstract class BlockAdapter {
+
+    private static final BlockAdapter INSTANCE =
+            ModernBlockAdapter.isSupported() ? new ModernBlockAdapter() : new LegacyBlockAdapter();
+
+    private final Map<NaturalResourceAreaConfiguration.Block, State> states = new ConcurrentHashMap<>();
+
+    @NotNull
+    static BlockAdapter get() {
+        return INSTANCE;
+    }
+
+    // 配置方块只解析一次，无法解析时返回 null
+    @Nullable
+    final State resolve(@NotNull NaturalResourceAreaConfiguration.Block block) {
+        State state = states.computeIfAbsent(block, k -> {
+            State state1 = create(k);
+            return state1 == null ? State.UNKNOWN : state1;
+        });
+        return state == State.UNKNOWN ? null : state;
+    }
+
+    @Nullable
+    protected abstract State create(@NotNull NaturalResourceAreaConfiguration.Block block);
+
+    // 读取方块当前状态，结果仅用于 State#matches，同一方块与多个 State 比较时只需读取一次
+    @NotNull
+    abstract Object read(@NotNull Block block);
+
+    abstract static class State {
+
+        private static final State UNKNOWN = new State() {
+            @Override
+            boolean isAir() {
+                return true;
+            }
+
+            @Override
+            boolean matches(@NotNull Object read) {
+                return false;
+            }
+
+            @Override
+            void write(@NotNull Block block) {}
+        };
+
+        abstract boolean isAir();
+
+        abstract boolean matches(@NotNull Object read);
+
+        abstract void write(@NotNull Block block);
+    }
+}
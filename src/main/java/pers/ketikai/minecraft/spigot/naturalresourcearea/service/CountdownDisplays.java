@@ -0,0 +1,169 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.boss.BarColor;
+import org.bukkit.boss.BarStyle;
+import org.bukkit.boss.BossBar;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.api.DisplayType;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.configuration.NaturalResourceAreaConfiguration;
+import team.idealstate.sugar.validate.annotation.NotNull;
+
+final class CountdownDisplays implements Listener {
+
+    private final Plugin plugin;
+    private final NaturalResourceAreaServiceImpl service;
+    private final Map<String, AreaDisplay> displays = new HashMap<>();
+
+    private CountdownDisplays(@NotNull Plugin plugin, @NotNull NaturalResourceAreaServiceImpl service) {
+        this.plugin = plugin;
+        this.service = service;
+    }
+
+    static void start(@NotNull Plugin plugin, @NotNull NaturalResourceAreaServiceImpl service) {
+        CountdownDisplays displays = new CountdownDisplays(plugin, service);
+        Bukkit.getPluginManager().registerEvents(displays, plugin);
+        Bukkit.getScheduler().runTaskTimer(plugin, displays::update, 20L, 20L);
+    }
+
+    private void update() {
+        Iterator<Map.Entry<String, AreaDisplay>> iterator = displays.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, AreaDisplay> entry = iterator.next();
+            NaturalResourceAreaConfiguration.Area area1 = service.getArea(entry.getKey());
+            if (area1 == null || !entry.getValue().getDisplay().equals(area1.getDisplay())) {
+                entry.getValue().dispose();
+                iterator.remove();
+            }
+        }
+        for (String area : service.getAreas()) {
+            NaturalResourceAreaConfiguration.Area area1 = service.getArea(area);
+            if (area1 == null || area1.getDisplay() == null) {
+                continue;
+            }
+            World world1 = Bukkit.getWorld(area1.getWorld());
+            Long countdown = service.getRefreshCountdown(area);
+            if (world1 == null || countdown == null) {
+                continue;
+            }
+            countdown = Math.max(countdown, 0L);
+            String text = area1.getDisplay().getText();
+            for (Map.Entry<String, String> entry : service.variables(area1, countdown).entrySet()) {
+                text = text.replace(entry.getKey(), entry.getValue());
+            }
+            double progress = (double) countdown / (Math.max(area1.getRefresh().getInterval(), 1L) * 60L);
+            List<Player> players = service.areaPlayers(world1.getPlayers(), area1);
+            displays.computeIfAbsent(area, k -> new AreaDisplay(area1.getDisplay()))
+                    .update(text, Math.min(Math.max(progress, 0.0), 1.0), players);
+        }
+    }
+
+    @EventHandler
+    public void onPluginDisable(PluginDisableEvent event) {
+        if (plugin.equals(event.getPlugin())) {
+            for (AreaDisplay display : displays.values()) {
+                display.dispose();
+            }
+            displays.clear();
+        }
+    }
+
+    private static final class AreaDisplay {
+
+        private final NaturalResourceAreaConfiguration.Display display;
+        private final BossBar bar;
+        private Set<UUID> members = new HashSet<>();
+        private String text = null;
+
+        private AreaDisplay(@NotNull NaturalResourceAreaConfiguration.Display display) {
+            this.display = display;
+            if (DisplayType.BOSSBAR.equals(display.getType())) {
+                BarColor color = display.getColor() == null ? BarColor.WHITE : display.getColor();
+                BarStyle style = display.getStyle() == null ? BarStyle.SOLID : display.getStyle();
+                this.bar = Bukkit.createBossBar(display.getText(), color, style);
+            } else {
+                this.bar = null;
+            }
+        }
+
+        @NotNull
+        private NaturalResourceAreaConfiguration.Display getDisplay() {
+            return display;
+        }
+
+        private void update(@NotNull String text, double progress, @NotNull List<Player> players) {
+            boolean changed = !text.equals(this.text);
+            this.text = text;
+            Set<UUID> members = new HashSet<>(players.size());
+            if (bar != null) {
+                if (changed) {
+                    bar.setTitle(text);
+                    bar.setProgress(progress);
+                }
+                for (Player player : players) {
+                    members.add(player.getUniqueId());
+                    if (!this.members.contains(player.getUniqueId())) {
+                        bar.addPlayer(player);
+                    }
+                }
+                for (Player player : bar.getPlayers()) {
+                    if (!members.contains(player.getUniqueId())) {
+                        bar.removePlayer(player);
+                    }
+                }
+            } else {
+                BaseComponent[] message = null;
+                for (Player player : players) {
+                    members.add(player.getUniqueId());
+                    if (changed || !this.members.contains(player.getUniqueId())) {
+                        if (message == null) {
+                            message = TextComponent.fromLegacyText(text);
+                        }
+                        player.spigot().sendMessage(ChatMessageType.ACTION_BAR, message);
+                    }
+                }
+            }
+            this.members = members;
+        }
+
+        private void dispose() {
+            if (bar != null) {
+                bar.removeAll();
+            }
+            members.clear();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.service;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.api.RefreshEstimate;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.configuration.NaturalResourceAreaConfiguration;
+import team.idealstate.sugar.validate.annotation.NotNull;
+
+final class EstimateJob {
+
+    private final NaturalResourceAreaServiceImpl service;
+
+    @Getter
+    private final String area;
+
+    @Getter
+    private final CompletableFuture<RefreshEstimate> future = new CompletableFuture<>();
+
+    private NaturalResourceAreaConfiguration.Area area1;
+    private World world1;
+    private NaturalResourceAreaServiceImpl.RefreshPlan plan;
+    // 仅累计扫描在主线程上占用的时间，不含分片之间等待的 tick
+    private long duration = 0L;
+
+    EstimateJob(@NotNull NaturalResourceAreaServiceImpl service, @NotNull String area) {
+        this.service = service;
+        this.area = area;
+    }
+
+    boolean process(long deadline) {
+        if (plan == null) {
+            this.area1 = service.getArea(area);
+            if (area1 == null) {
+                return complete(null);
+            }
+            this.world1 = Bukkit.getWorld(area1.getWorld());
+            if (world1 == null) {
+                return complete(null);
+            }
+            this.plan = service.newPlan(area1);
+        } else if (Bukkit.getWorld(area1.getWorld()) != world1) {
+            return complete(null);
+        }
+        long start = System.nanoTime();
+        boolean scanned = service.scan(area, area1, world1, plan, true, deadline);
+        if (scanned) {
+            service.select(area, area1, plan, new LinkedHashMap<>(area1.getResources()));
+        }
+        duration += System.nanoTime() - start;
+        if (!scanned) {
+            return false;
+        }
+        return complete(service.estimate(area, plan, duration));
+    }
+
+    private boolean complete(RefreshEstimate estimate) {
+        future.complete(estimate);
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.service;
+
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.configuration.NaturalResourceAreaConfiguration;
+import team.idealstate.sugar.validate.annotation.NotNull;
+import team.idealstate.sugar.validate.annotation.Nullable;
+
+final class LegacyBlockAdapter extends BlockAdapter {
+
+    @Nullable
+    @Override
+    protected State create(@NotNull NaturalResourceAreaConfiguration.Block block) {
+        Material material = Material.matchMaterial(block.getName());
+        return material == null ? null : new LegacyState(material, block.getData());
+    }
+
+    @NotNull
+    @Override
+    Object read(@NotNull Block block) {
+        return block;
+    }
+
+    private static final class LegacyState extends State {
+
+        private final Material material;
+        private final byte data;
+
+        private LegacyState(@NotNull Material material, byte data) {
+            this.material = material;
+            this.data = data;
+        }
+
+        @Override
+        boolean isAir() {
+            return material == Material.AIR;
+        }
+
+        @Override
+        boolean matches(@NotNull Object read) {
+            Block block = (Block) read;
+            return block.getType() == material && block.getData() == data;
+        }
+
+        @Override
+        void write(@NotNull Block block) {
+            BlockState state = block.getState();
+            state.setType(material);
+            state.setRawData(data);
+            state.update(true);
+        }
+    }
+}
@@ -0,0 +1,416 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+import org.bukkit.WorldType;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.api.LoadTestReport;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.api.PlayerSelector;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.api.RefreshMode;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.api.RefreshReport;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.configuration.NaturalResourceAreaConfiguration;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.event.PostRefreshEvent;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.exception.NaturalResourceAreaException;
+import team.idealstate.sugar.logging.Log;
+import team.idealstate.sugar.validate.annotation.NotNull;
+
+final class LoadTest extends BukkitRunnable implements Listener {
+
+    private static final String WORLD = "nra_loadtest";
+    private static final int MIN_Y = 5;
+    private static final int BASELINE_TICKS = 100;
+    private static final long COUNTDOWN = 3L;
+    private static final AtomicBoolean RUNNING = new AtomicBoolean(false);
+    private static final Class<? extends Event> TICK_END_EVENT;
+    private static final MethodHandle TICK_DURATION;
+
+    static {
+        Class<? extends Event> tickEndEvent = null;
+        MethodHandle tickDuration = null;
+        try {
+            Class<? extends Event> type = Class.forName("com.destroystokyo.paper.event.server.ServerTickEndEvent")
+                    .asSubclass(Event.class);
+            tickDuration = MethodHandles.publicLookup()
+                    .findVirtual(type, "getTickDuration", MethodType.methodType(double.class))
+                    .asType(MethodType.methodType(double.class, Event.class));
+            tickEndEvent = type;
+        } catch (ReflectiveOperationException | ClassCastException ignored) {
+            // 非 Paper 服务端不提供 tick 耗时，退化为统计 tick 间隔
+            tickDuration = null;
+        }
+        TICK_END_EVENT = tickEndEvent;
+        TICK_DURATION = tickDuration;
+    }
+
+    private final NaturalResourceAreaServiceImpl service;
+    private final int size;
+    private final int rounds;
+    private final RefreshMode mode;
+    private final boolean queued;
+    private final World world;
+    private final Map<String, NaturalResourceAreaConfiguration.Area> areas;
+    private final CompletableFuture<LoadTestReport> future = new CompletableFuture<>();
+    private final Samples baseline = new Samples();
+    private final Samples load = new Samples();
+    private boolean loading = false;
+    private boolean finished = false;
+    private int round = 0;
+    private int pending = 0;
+    private long last = 0L;
+    private int baselineTicks = 0;
+    private int loadTicks = 0;
+    private long baselineAllocated = -1L;
+    private long loadAllocated = -1L;
+    private long written = 0L;
+    private long chunks = 0L;
+    private long actions = 0L;
+    private long countdownActions = 0L;
+    private long aborted = 0L;
+    private long refreshDuration = 0L;
+
+    private LoadTest(
+            @NotNull NaturalResourceAreaServiceImpl service,
+            @NotNull World world,
+            @NotNull Map<String, NaturalResourceAreaConfiguration.Area> areas,
+            int size,
+            int rounds,
+            @NotNull RefreshMode mode,
+            boolean queued) {
+        this.service = service;
+        this.world = world;
+        this.areas = areas;
+        this.size = size;
+        this.rounds = rounds;
+        this.mode = mode;
+        this.queued = queued;
+    }
+
+    @NotNull
+    static CompletableFuture<LoadTestReport> start(
+            @NotNull Plugin plugin,
+            @NotNull NaturalResourceAreaServiceImpl service,
+            int size,
+            int count,
+            int rounds,
+            @NotNull RefreshMode mode,
+            boolean queued) {
+        if (size <= 0 || count <= 0 || rounds <= 0) {
+            throw new NaturalResourceAreaException("size, count and rounds must be positive.");
+        }
+        if (!RUNNING.compareAndSet(false, true)) {
+            throw new NaturalResourceAreaException("已有压力测试正在运行。");
+        }
+        World world = null;
+        Map<String, NaturalResourceAreaConfiguration.Area> areas = new LinkedHashMap<>();
+        LoadTest loadTest = null;
+        try {
+            world = new WorldCreator(WORLD)
+                    .type(WorldType.FLAT)
+                    .generateStructures(false)
+                    .createWorld();
+            world.setAutoSave(false);
+            int height = Math.min(size, world.getMaxHeight() - MIN_Y);
+            for (int i = 0; i < count; i++) {
+                int minX = i * (size + 16);
+                NaturalResourceAreaConfiguration.Area area = area(i, minX, size, height, mode);
+                if (service.isConfigured(area.getName())) {
+                    throw new NaturalResourceAreaException("区域名与压力测试区域冲突：" + area.getName());
+                }
+                areas.put(area.getName(), area);
+                for (int cx = minX >> 4; cx <= (minX + size - 1) >> 4; cx++) {
+                    for (int cz = 0; cz <= (size - 1) >> 4; cz++) {
+                        world.loadChunk(cx, cz);
+                    }
+                }
+            }
+            // 临时区域注册到服务后，刷新走与正式区域相同的 refresh/refreshAsync 流程
+            service.addTemporaryAreas(areas.values());
+            loadTest = new LoadTest(service, world, areas, size, rounds, mode, queued);
+            Bukkit.getPluginManager().registerEvents(loadTest, plugin);
+            if (TICK_END_EVENT != null) {
+                Bukkit.getPluginManager()
+                        .registerEvent(
+                                TICK_END_EVENT,
+                                loadTest,
+                                EventPriority.MONITOR,
+                                (listener, event) -> ((LoadTest) listener).onTickEnd(event),
+                                plugin);
+            }
+            loadTest.runTaskTimer(plugin, 1L, 1L);
+            return loadTest.future;
+        } catch (Throwable e) {
+            if (loadTest != null) {
+                HandlerList.unregisterAll(loadTest);
+            }
+            service.removeTemporaryAreas(areas.keySet());
+            cleanup(world);
+            RUNNING.set(false);
+            throw e;
+        }
+    }
+
+    @NotNull
+    private static NaturalResourceAreaConfiguration.Area area(
+            int index, int minX, int size, int height, @NotNull RefreshMode mode) {
+        // 控制台执行，保证每个动作都实际派发一次
+        NaturalResourceAreaConfiguration.Action action = new NaturalResourceAreaConfiguration.Action(
+                PlayerSelector.NONE, "nra send {world} {area} {countdown}");
+        Map<Long, NaturalResourceAreaConfiguration.Action> countdown = new LinkedHashMap<>();
+        for (long second = COUNTDOWN; second > 0L; second--) {
+            countdown.put(second, action);
+        }
+        Map<NaturalResourceAreaConfiguration.Block, Double> resources = new LinkedHashMap<>();
+        resources.put(new NaturalResourceAreaConfiguration.Block("minecraft", "stone", (byte) 0), 0.9);
+        resources.put(new NaturalResourceAreaConfiguration.Block("minecraft", "air", (byte) 0), 0.05);
+        resources.put(new NaturalResourceAreaConfiguration.Block("minecraft", "diamond_ore", (byte) 0), 0.05);
+        return new NaturalResourceAreaConfiguration.Area(
+                WORLD + "-" + index,
+                WORLD,
+                new NaturalResourceAreaConfiguration.Location(minX, MIN_Y, 0),
+                new NaturalResourceAreaConfiguration.Region(
+                        new NaturalResourceAreaConfiguration.Location(minX, MIN_Y, 0),
+                        new NaturalResourceAreaConfiguration.Location(
+                                minX + size - 1, MIN_Y + height - 1, size - 1)),
+                new NaturalResourceAreaConfiguration.Refresh(
+                        mode, 1, countdown, Collections.singletonList(action), null, null),
+                Collections.emptySet(),
+                resources,
+                null);
+    }
+
+    @Override
+    public void run() {
+        long now = System.nanoTime();
+        if (TICK_END_EVENT == null && last != 0L) {
+            samples().add(now - last);
+        }
+        last = now;
+        try {
+            if (!loading) {
+                if (baselineTicks++ == 0) {
+                    baselineAllocated = allocatedBytes();
+                }
+                if (baseline.size < BASELINE_TICKS) {
+                    return;
+                }
+                long allocated = allocatedBytes();
+                baselineAllocated = baselineAllocated < 0L || allocated < 0L ? -1L : allocated - baselineAllocated;
+                loadAllocated = allocated;
+                loading = true;
+            }
+            loadTicks++;
+            if (pending > 0) {
+                return;
+            }
+            if (round == rounds) {
+                finish();
+                return;
+            }
+            round++;
+            List<Player> worldPlayers = world.getPlayers();
+            for (Map.Entry<String, NaturalResourceAreaConfiguration.Area> entry : areas.entrySet()) {
+                // 强制刷新不经过倒计时，每轮在刷新前派发一次全部倒计时动作
+                String area = entry.getKey();
+                NaturalResourceAreaConfiguration.Area area1 = entry.getValue();
+                List<Player> areaPlayers = service.areaPlayers(worldPlayers, area1);
+                for (Map.Entry<Long, NaturalResourceAreaConfiguration.Action> countdown :
+                        area1.getRefresh().getCountdown().entrySet()) {
+                    service.executeAction(
+                            area,
+                            worldPlayers,
+                            areaPlayers,
+                            service.variables(area1, countdown.getKey()),
+                            countdown.getValue());
+                    countdownActions++;
+                }
+                pending++;
+                if (queued) {
+                    service.refreshAsync(area);
+                } else if (!service.refresh(area)) {
+                    // 刷新被取消时不会发布报告
+                    pending--;
+                }
+            }
+        } catch (Throwable e) {
+            Log.error(e);
+            stop();
+            future.completeExceptionally(e);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPostRefresh(PostRefreshEvent event) {
+        RefreshReport report = event.getReport();
+        NaturalResourceAreaConfiguration.Area area = areas.get(report.getArea());
+        if (area == null || pending <= 0) {
+            return;
+        }
+        pending--;
+        written += report.getWritten();
+        chunks += report.getChunks();
+        refreshDuration += report.getDuration();
+        if (report.isAborted()) {
+            aborted++;
+        } else {
+            actions += area.getRefresh().getFinish().size();
+        }
+    }
+
+    private void onTickEnd(@NotNull Event event) throws EventException {
+        if (finished) {
+            return;
+        }
+        try {
+            double millis = (double) TICK_DURATION.invokeExact(event);
+            samples().add((long) (millis * 1_000_000.0));
+        } catch (Throwable e) {
+            throw new EventException(e);
+        }
+    }
+
+    @NotNull
+    private Samples samples() {
+        return loading ? load : baseline;
+    }
+
+    private void finish() {
+        long allocated = allocatedBytes();
+        if (baselineAllocated < 0L || loadAllocated < 0L || allocated < 0L) {
+            allocated = -1L;
+        } else {
+            // 主线程分配量扣除基准阶段按 tick 折算的分配量
+            long expected = baselineAllocated * Math.max(loadTicks - 1, 0) / Math.max(baselineTicks - 1, 1);
+            allocated = Math.max(allocated - loadAllocated - expected, 0L);
+        }
+        stop();
+        future.complete(new LoadTestReport(
+                areas.size(),
+                size,
+                rounds,
+                mode,
+                queued,
+                written,
+                chunks,
+                countdownActions,
+                actions,
+                aborted,
+                refreshDuration,
+                allocated,
+                TICK_END_EVENT != null,
+                baseline.ticks(),
+                load.ticks()));
+    }
+
+    private void stop() {
+        finished = true;
+        cancel();
+        HandlerList.unregisterAll(this);
+        service.removeTemporaryAreas(areas.keySet());
+        cleanup(world);
+        RUNNING.set(false);
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean1 = (com.sun.management.ThreadMXBean) bean;
+            if (bean1.isThreadAllocatedMemorySupported() && bean1.isThreadAllocatedMemoryEnabled()) {
+                return bean1.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1L;
+    }
+
+    private static void cleanup(World world) {
+        if (world == null) {
+            return;
+        }
+        File folder = world.getWorldFolder();
+        if (!Bukkit.unloadWorld(world, false)) {
+            Log.warn("未能卸载压力测试世界：" + world.getName());
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(folder.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        } catch (IOException e) {
+            Log.error(e);
+        }
+    }
+
+    private static final class Samples {
+
+        private long[] values = new long[BASELINE_TICKS];
+        private int size = 0;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        @NotNull
+        LoadTestReport.Ticks ticks() {
+            if (size == 0) {
+                return new LoadTestReport.Ticks(0L, 0L, 0L, 0L);
+            }
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return new LoadTestReport.Ticks(
+                    percentile(sorted, 0.50),
+                    percentile(sorted, 0.95),
+                    percentile(sorted, 0.99),
+                    sorted[sorted.length - 1]);
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.service;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Locale;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.UnsafeValues;
+import org.bukkit.block.Block;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.configuration.NaturalResourceAreaConfiguration;
+import team.idealstate.sugar.logging.Log;
+import team.idealstate.sugar.validate.annotation.NotNull;
+import team.idealstate.sugar.validate.annotation.Nullable;
+
+// 编译所用的 API 版本不包含 BlockData，因此通过方法句柄调用，句柄为静态常量以便 JIT 内联
+class ModernBlockAdapter extends BlockAdapter {
+
+    private static final String LEGACY_PREFIX = "LEGACY_";
+    private static final MethodHandle CREATE_BLOCK_DATA;
+    private static final MethodHandle FROM_LEGACY;
+    private static final MethodHandle GET_MATERIAL;
+    private static final MethodHandle GET_BLOCK_DATA;
+    private static final MethodHandle SET_BLOCK_DATA;
+    private static final MethodHandle MATCHES;
+
+    static {
+        MethodHandle createBlockData = null;
+        MethodHandle fromLegacy = null;
+        MethodHandle getMaterial = null;
+        MethodHandle getBlockData = null;
+        MethodHandle setBlockData = null;
+        MethodHandle matches = null;
+        try {
+            Class<?> blockData = Class.forName("org.bukkit.block.data.BlockData");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            createBlockData = lookup.findStatic(
+                            Bukkit.class, "createBlockData", MethodType.methodType(blockData, String.class))
+                    .asType(MethodType.methodType(Object.class, String.class));
+            fromLegacy = lookup.findVirtual(
+                            UnsafeValues.class,
+                            "fromLegacy",
+                            MethodType.methodType(blockData, Material.class, byte.class))
+                    .asType(MethodType.methodType(Object.class, UnsafeValues.class, Material.class, byte.class));
+            getMaterial = lookup.findVirtual(blockData, "getMaterial", MethodType.methodType(Material.class))
+                    .asType(MethodType.methodType(Material.class, Object.class));
+            getBlockData = lookup.findVirtual(Block.class, "getBlockData", MethodType.methodType(blockData))
+                    .asType(MethodType.methodType(Object.class, Block.class));
+            setBlockData = lookup.findVirtual(
+                            Block.class, "setBlockData", MethodType.methodType(void.class, blockData, boolean.class))
+                    .asType(MethodType.methodType(void.class, Block.class, Object.class, boolean.class));
+            matches = lookup.findVirtual(blockData, "matches", MethodType.methodType(boolean.class, blockData))
+                    .asType(MethodType.methodType(boolean.class, Object.class, Object.class));
+        } catch (ReflectiveOperationException ignored) {
+            // 1.13 以下的服务端，使用旧版适配
+            createBlockData = null;
+        }
+        CREATE_BLOCK_DATA = createBlockData;
+        FROM_LEGACY = fromLegacy;
+        GET_MATERIAL = getMaterial;
+        GET_BLOCK_DATA = getBlockData;
+        SET_BLOCK_DATA = setBlockData;
+        MATCHES = matches;
+    }
+
+    static boolean isSupported() {
+        return CREATE_BLOCK_DATA != null;
+    }
+
+    // 不带方块状态的 minecraft 方块优先按旧版名称与数据值转换，保证旧配置（如 grass 为草方块）含义不变；
+    // 旧版不存在的名称或带状态（如 oak_log[axis=x]）的方块按新版方块 ID 解析
+    @Nullable
+    @Override
+    protected State create(@NotNull NaturalResourceAreaConfiguration.Block block) {
+        try {
+            Object data = null;
+            if (isLegacyKey(block)) {
+                data = createLegacyBlockData(block.getName().toUpperCase(Locale.ROOT), block.getData());
+            }
+            if (data == null && block.getData() == 0) {
+                data = createBlockData((block.getNamespace() + ":" + block.getName()).toLowerCase(Locale.ROOT));
+            }
+            if (data == null) {
+                return null;
+            }
+            return new ModernState(data, isAir(getMaterialName(data)));
+        } catch (Throwable e) {
+            Log.error(e);
+            return null;
+        }
+    }
+
+    static boolean isLegacyKey(@NotNull NaturalResourceAreaConfiguration.Block block) {
+        return "minecraft".equalsIgnoreCase(block.getNamespace()) && block.getName().indexOf('[') < 0;
+    }
+
+    static boolean isAir(@NotNull String material) {
+        return "AIR".equals(material) || material.endsWith("_AIR");
+    }
+
+    @Nullable
+    Object createBlockData(@NotNull String key) throws Throwable {
+        try {
+            return (Object) CREATE_BLOCK_DATA.invokeExact(key);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    Object createLegacyBlockData(@NotNull String name, byte data) throws Throwable {
+        Material material = Material.getMaterial(LEGACY_PREFIX + name);
+        if (material == null) {
+            return null;
+        }
+        return (Object) FROM_LEGACY.invokeExact(Bukkit.getUnsafe(), material, data);
+    }
+
+    @NotNull
+    String getMaterialName(@NotNull Object data) throws Throwable {
+        return ((Material) GET_MATERIAL.invokeExact(data)).name();
+    }
+
+    // BlockData#matches 只忽略参数中未指定的状态，因此以读取到的方块为接收者、配置方块为参数
+    boolean matches(@NotNull Object read, @NotNull Object data) throws Throwable {
+        return (boolean) MATCHES.invokeExact(read, data);
+    }
+
+    void setBlockData(@NotNull Block block, @NotNull Object data) throws Throwable {
+        SET_BLOCK_DATA.invokeExact(block, data, true);
+    }
+
+    @NotNull
+    @Override
+    Object read(@NotNull Block block) {
+        try {
+            return (Object) GET_BLOCK_DATA.invokeExact(block);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final class ModernState extends State {
+
+        private final Object data;
+        private final boolean air;
+
+        private ModernState(@NotNull Object data, boolean air) {
+            this.data = data;
+            this.air = air;
+        }
+
+        @Override
+        boolean isAir() {
+            return air;
+        }
+
+        // 仅比较配置中显式指定的状态，未指定的状态视为任意值
+        @Override
+        boolean matches(@NotNull Object read) {
+            try {
+                return ModernBlockAdapter.this.matches(read, data);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        void write(@NotNull Block block) {
+            try {
+                setBlockData(block, data);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
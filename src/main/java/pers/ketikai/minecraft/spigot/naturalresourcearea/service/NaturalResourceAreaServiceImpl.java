@@ -22,29 +22,43 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
-import lombok.AllArgsConstructor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.Data;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
-import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
-import org.bukkit.block.BlockState;
 import org.bukkit.command.CommandException;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitScheduler;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.api.LoadTestReport;
 import pers.ketikai.minecraft.spigot.naturalresourcearea.api.NaturalResourceAreaService;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.api.RefreshEstimate;
 import pers.ketikai.minecraft.spigot.naturalresourcearea.api.RefreshMode;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.api.RefreshReport;
 import pers.ketikai.minecraft.spigot.naturalresourcearea.configuration.NaturalResourceAreaConfiguration;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.event.NaturalResourceAreaEvent;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.event.PostRefreshEvent;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.event.PreRefreshEvent;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.event.RefreshChunkEvent;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.event.RefreshCountdownEvent;
 import team.idealstate.sugar.logging.Log;
 import team.idealstate.sugar.next.context.ContextHolder;
 import team.idealstate.sugar.next.context.annotation.component.Service;
@@ -62,9 +76,21 @@ public class NaturalResourceAreaServiceImpl
                 ContextHolderAware,
                 Initializable {
 
+    private static final long REFRESH_BUDGET = TimeUnit.MILLISECONDS.toNanos(10L);
+
     private final Map<String, RefreshRecord> refreshRecords = new ConcurrentHashMap<>();
+    private final Map<String, RefreshJob> refreshJobs = new ConcurrentHashMap<>();
+    private final Map<String, ResourceCounter> resourceCounters = new ConcurrentHashMap<>();
+    private final Queue<RefreshJob> refreshQueue = new ConcurrentLinkedQueue<>();
+    private final Queue<EstimateJob> estimateQueue = new ConcurrentLinkedQueue<>();
+    // 压力测试创建的临时区域，仅供刷新流程查找，不参与定时刷新与跨服同步
+    private final Map<String, NaturalResourceAreaConfiguration.Area> temporaryAreas = new ConcurrentHashMap<>();
     private volatile ContextHolder contextHolder;
     private volatile NaturalResourceAreaConfiguration configuration;
+    private volatile RefreshSynchronizer synchronizer;
+    private volatile boolean initialized = false;
+    private final AtomicLong writeNanos = new AtomicLong();
+    private final AtomicLong writtenBlocks = new AtomicLong();
 
     @Nullable
     @Override
@@ -76,13 +102,156 @@ public class NaturalResourceAreaServiceImpl
         }
         NaturalResourceAreaConfiguration.Refresh refresh = area1.getRefresh();
         RefreshRecord record = refreshRecords.get(area);
-        long countdown = refresh.getInterval() * 60L * 1000L;
+        long countdown = Math.max(refresh.getInterval(), 1L) * 60L;
         if (record != null) {
-            countdown = ((record.getTimestamp() + countdown) - System.currentTimeMillis()) / 1000L;
+            countdown = (refreshTarget(area1, record) - System.currentTimeMillis()) / 1000L;
         }
         return countdown;
     }
 
+    private long refreshTarget(@NotNull NaturalResourceAreaConfiguration.Area area1, @NotNull RefreshRecord record) {
+        long target = record.getTimestamp() + Math.max(area1.getRefresh().getInterval(), 1L) * 60L * 1000L;
+        long scheduled = record.getScheduled();
+        return scheduled == 0L ? target : Math.min(target, scheduled);
+    }
+
+    private boolean scheduleDepletion(
+            @NotNull NaturalResourceAreaConfiguration.Area area1, @NotNull RefreshRecord record, long now) {
+        NaturalResourceAreaConfiguration.Refresh refresh = area1.getRefresh();
+        NaturalResourceAreaConfiguration.Depletion depletion = refresh.getDepletion();
+        if (depletion == null || record.getScheduled() != 0L || record.getPlaced() <= 0L) {
+            return false;
+        }
+        if (record.getMined() < depletion.getThreshold() * record.getPlaced()) {
+            return false;
+        }
+        long lead = countdownLead(refresh);
+        long minimum = record.getTimestamp() + Math.max(depletion.getMinimum(), 0L) * 60L * 1000L;
+        record.setScheduled(Math.max(now + lead * 1000L, minimum));
+        return true;
+    }
+
+    // 跟随者不根据本地挖掘量决定提前或跳过刷新，而是采用领导者发布的周期信息
+    private static void followCycle(@NotNull RefreshRecord record, @Nullable RefreshSynchronizer.Cycle cycle) {
+        if (cycle == null || cycle.getStart() < record.getTimestamp()) {
+            return;
+        }
+        if (cycle.getStart() > record.getTimestamp()) {
+            // 领导者跳过或取消了本轮刷新，仅重置周期
+            record.setTimestamp(cycle.getStart());
+            record.getCountdowns().clear();
+        }
+        record.setScheduled(cycle.getScheduled());
+        record.setSkipped(cycle.getSkipped());
+    }
+
+    private static void publishCycle(
+            @Nullable RefreshSynchronizer synchronizer, @NotNull String area, @NotNull RefreshRecord record) {
+        if (synchronizer != null) {
+            synchronizer.publishCycle(area, record.getTimestamp(), record.getScheduled(), record.getSkipped());
+        }
+    }
+
+    private static long countdownLead(@NotNull NaturalResourceAreaConfiguration.Refresh refresh) {
+        long lead = 0L;
+        for (Long second : refresh.getCountdown().keySet()) {
+            lead = Math.max(lead, second);
+        }
+        return lead;
+    }
+
+    private boolean isDepletionSkipped(
+            @NotNull NaturalResourceAreaConfiguration.Area area1, @NotNull RefreshRecord record) {
+        NaturalResourceAreaConfiguration.Depletion depletion = area1.getRefresh().getDepletion();
+        return depletion != null
+                && record.getPlaced() > 0L
+                && record.getMined() < depletion.getSkip() * record.getPlaced();
+    }
+
+    void mine(@NotNull Block block) {
+        count(block, -1L);
+    }
+
+    void place(@NotNull Block block) {
+        count(block, 1L);
+    }
+
+    private void count(@NotNull Block block, long delta) {
+        String world = block.getWorld().getName();
+        int x = block.getX();
+        int y = block.getY();
+        int z = block.getZ();
+        for (Map.Entry<String, NaturalResourceAreaConfiguration.Area> entry : configuration.getAreas().entrySet()) {
+            NaturalResourceAreaConfiguration.Area area1 = entry.getValue();
+            if (!area1.getWorld().equals(world) || !area1.getRegion().contains(x, y, z)) {
+                continue;
+            }
+            if (!getResourceCounter(entry.getKey(), area1).add(block, delta) || delta >= 0L) {
+                continue;
+            }
+            RefreshRecord record = refreshRecords.get(entry.getKey());
+            if (record != null) {
+                record.setMined(record.getMined() + 1L);
+            }
+        }
+    }
+
+    @NotNull
+    private ResourceCounter getResourceCounter(
+            @NotNull String area, @NotNull NaturalResourceAreaConfiguration.Area area1) {
+        ResourceCounter counter = resourceCounters.get(area);
+        if (counter != null && counter.getArea() == area1) {
+            return counter;
+        }
+        ResourceCounter counter1 = new ResourceCounter(area1);
+        if (counter != null) {
+            counter1.inherit(counter);
+        }
+        resourceCounters.put(area, counter1);
+        return counter1;
+    }
+
+    void markComposition(
+            @NotNull String area, @NotNull NaturalResourceAreaConfiguration.Area area1, @NotNull RefreshPlan plan) {
+        // 空白区域刷新保留原有方块，仅累加本次放置的资源
+        boolean reset = !RefreshMode.FILL.equals(area1.getRefresh().getMode());
+        getResourceCounter(area, area1).apply(plan.getCounts(), reset);
+    }
+
+    @Nullable
+    @Override
+    public Long getResourceCount(@NotNull String area, @NotNull String resource) {
+        Validation.notNullOrBlank(area, "area must not be null or blank.");
+        Validation.notNullOrBlank(resource, "resource must not be null or blank.");
+        NaturalResourceAreaConfiguration.Area area1 = configuration.getAreas().get(area);
+        if (area1 == null) {
+            return null;
+        }
+        return getResourceCounter(area, area1).get(resource);
+    }
+
+    @Nullable
+    @Override
+    public Long getResourceTotal(@NotNull String area) {
+        Validation.notNullOrBlank(area, "area must not be null or blank.");
+        NaturalResourceAreaConfiguration.Area area1 = configuration.getAreas().get(area);
+        if (area1 == null) {
+            return null;
+        }
+        return getResourceCounter(area, area1).getTotal();
+    }
+
+    @NotNull
+    @Override
+    public Map<String, Long> getResourceCounts(@NotNull String area) {
+        Validation.notNullOrBlank(area, "area must not be null or blank.");
+        NaturalResourceAreaConfiguration.Area area1 = configuration.getAreas().get(area);
+        if (area1 == null) {
+            return Collections.emptyMap();
+        }
+        return getResourceCounter(area, area1).getAll();
+    }
+
     @Override
     public void initialize() {
         BukkitScheduler scheduler = Bukkit.getScheduler();
@@ -93,6 +262,11 @@ public class NaturalResourceAreaServiceImpl
                 },
                 2L,
                 2L);
+        scheduler.runTaskTimer((Plugin) contextHolder, this::processRefreshQueue, 1L, 1L);
+        Bukkit.getPluginManager().registerEvents(new ResourceBlockListener(this), (Plugin) contextHolder);
+        CountdownDisplays.start((Plugin) contextHolder, this);
+        this.synchronizer = RefreshSynchronizer.start((Plugin) contextHolder, configuration.getSynchronization());
+        this.initialized = true;
     }
 
     @Override
@@ -103,8 +277,7 @@ public class NaturalResourceAreaServiceImpl
 
     private boolean refresh(@NotNull String area, boolean force) {
         Validation.notNullOrBlank(area, "area must not be null or blank.");
-        Map<String, NaturalResourceAreaConfiguration.Area> areas = configuration.getAreas();
-        NaturalResourceAreaConfiguration.Area area1 = areas.get(area);
+        NaturalResourceAreaConfiguration.Area area1 = getArea(area);
         if (area1 == null) {
             return false;
         }
@@ -112,20 +285,67 @@ public class NaturalResourceAreaServiceImpl
         if (resources.isEmpty()) {
             return false;
         }
+        if (refreshJobs.containsKey(area)) {
+            return false;
+        }
+        RefreshSynchronizer synchronizer = temporaryAreas.containsKey(area) ? null : this.synchronizer;
+        if (!force && synchronizer != null && !synchronizer.isReady()) {
+            return false;
+        }
         long now = System.currentTimeMillis();
         NaturalResourceAreaConfiguration.Refresh refresh = area1.getRefresh();
         String world = area1.getWorld();
         World world1 = Bukkit.getWorld(world);
         List<Player> worldPlayers = world1.getPlayers();
         RefreshRecord record = refreshRecords.get(area);
-        long countdown = Math.max(refresh.getInterval(), 1L) * 60L;
-        if (record != null) {
-            countdown = ((record.getTimestamp() + (countdown * 1000L)) - now) / 1000L;
-        } else {
-            record = new RefreshRecord(now);
+        Long shared = synchronizer == null ? null : synchronizer.getTimestamp(area);
+        boolean following = false;
+        if (record == null) {
+            record = new RefreshRecord(shared == null ? now : shared);
+        } else if (shared != null && shared > record.getTimestamp()) {
+            following = true;
+        }
+        boolean leading = synchronizer == null || synchronizer.isLeader();
+        if (!leading && !following) {
+            followCycle(record, synchronizer.getCycle(area));
+        } else if (leading && scheduleDepletion(area1, record, now)) {
+            publishCycle(synchronizer, area, record);
+        }
+        long countdown = (refreshTarget(area1, record) - now) / 1000L;
+        if (!force && !following && countdown <= 0L && !leading) {
+            refreshRecords.put(area, record);
+            return false;
+        }
+        // 在倒计时窗口开启时一次性决定本轮是否跳过，避免窗口内挖掘量变化导致倒计时动作缺失
+        boolean skipped = false;
+        if (!force && !following && countdown <= countdownLead(refresh)) {
+            if (leading && record.getSkipped() == null) {
+                record.setSkipped(isDepletionSkipped(area1, record));
+                publishCycle(synchronizer, area, record);
+            }
+            skipped = Boolean.TRUE.equals(record.getSkipped());
+        }
+        if (skipped && countdown <= 0L) {
+            record.setTimestamp(now);
+            record.getCountdowns().clear();
+            record.setScheduled(0L);
+            record.setSkipped(null);
+            publishCycle(synchronizer, area, record);
+            refreshRecords.put(area, record);
+            return false;
+        }
+        boolean inCountdown = !force && !following && countdown > 0L;
+        if (inCountdown && skipped) {
+            refreshRecords.put(area, record);
+            return false;
         }
-        boolean inCountdown = !force && countdown > 0L;
 
+        if (inCountdown && record.getLastCountdown() != countdown) {
+            record.setLastCountdown(countdown);
+            if (NaturalResourceAreaEvent.isListened(RefreshCountdownEvent.getHandlerList())) {
+                Bukkit.getPluginManager().callEvent(new RefreshCountdownEvent(area, countdown));
+            }
+        }
         NaturalResourceAreaConfiguration.Action countdownAction =
                 refresh.getCountdown().get(countdown);
         if (inCountdown && (countdownAction == null || !record.getCountdowns().add(countdown))) {
@@ -133,111 +353,585 @@ public class NaturalResourceAreaServiceImpl
             return false;
         }
 
+        List<Player> areaPlayers = areaPlayers(worldPlayers, area1);
+        Map<String, String> variables = variables(area1, countdown);
+        if (inCountdown) {
+            executeAction(area, worldPlayers, areaPlayers, variables, countdownAction);
+        } else {
+            boolean cancelled = isRefreshCancelled(area, force);
+            if (cancelled && force) {
+                refreshRecords.put(area, record);
+                return false;
+            }
+            record.setTimestamp(following ? shared : now);
+            record.getCountdowns().clear();
+            record.setScheduled(0L);
+            record.setMined(0L);
+            record.setSkipped(null);
+            if (cancelled) {
+                // 被取消的刷新不发布刷新时间，避免其他服务器跟随刷新，仅发布周期重置
+                if (!following) {
+                    publishCycle(synchronizer, area, record);
+                }
+                refreshRecords.put(area, record);
+                return false;
+            }
+            if (!following && synchronizer != null) {
+                synchronizer.publish(area, now);
+            }
+            long start = System.nanoTime();
+            RefreshPlan plan = plan(area, area1, world1, resources);
+            record.setPlaced(plan.getPlaced());
+            boolean applied = plan.isLoaded() && !plan.getBlocks().isEmpty();
+            long written = 0L;
+            int chunks = 0;
+            long removed = 0L;
+            if (applied) {
+                markComposition(area, area1, plan);
+                written = write(area, plan);
+                chunks = plan.getChunks().size();
+                removed = cleanup(area1, world1);
+
+                Object event = RefreshRecorder.FINISH.begin();
+                for (NaturalResourceAreaConfiguration.Action action : refresh.getFinish()) {
+                    executeAction(area, worldPlayers, areaPlayers, variables, action);
+                }
+                if (event != null) {
+                    RefreshRecorder.FINISH.commit(event, area, removed, (long) refresh.getFinish().size());
+                }
+            }
+            postRefresh(new RefreshReport(area, written, System.nanoTime() - start, chunks, removed, !applied));
+        }
+
+        refreshRecords.put(area, record);
+        return true;
+    }
+
+    @NotNull
+    List<Player> areaPlayers(@NotNull List<Player> worldPlayers, @NotNull NaturalResourceAreaConfiguration.Area area1) {
+        String world = area1.getWorld();
         NaturalResourceAreaConfiguration.Region region = area1.getRegion();
-        int minX = region.getMinX();
-        int maxX = region.getMaxX();
-        int minY = region.getMinY();
-        int maxY = region.getMaxY();
-        int minZ = region.getMinZ();
-        int maxZ = region.getMaxZ();
 
         List<Player> areaPlayers = new ArrayList<>();
         for (Player player : worldPlayers) {
             Location loc = player.getLocation();
-            if (loc.getWorld().getName().equals(world)
-                    && loc.getX() >= minX
-                    && loc.getX() <= maxX
-                    && loc.getY() >= minY
-                    && loc.getY() <= maxY
-                    && loc.getZ() >= minZ
-                    && loc.getZ() <= maxZ) {
+            if (loc.getWorld().getName().equals(world) && region.contains(loc.getX(), loc.getY(), loc.getZ())) {
                 areaPlayers.add(player);
             }
         }
+        return areaPlayers;
+    }
 
+    @NotNull
+    Map<String, String> variables(@NotNull NaturalResourceAreaConfiguration.Area area1, long countdown) {
         Map<String, String> variables = new HashMap<>();
-        variables.put("{world}", world);
+        variables.put("{world}", area1.getWorld());
         variables.put("{area}", area1.getName());
         variables.put("{countdown}", String.valueOf(countdown));
-        if (inCountdown) {
-            executeAction(worldPlayers, areaPlayers, variables, countdownAction);
-        } else {
-            record.setTimestamp(now);
-            record.getCountdowns().clear();
-            List<Block> areaBlocks = new ArrayList<>();
-            boolean loaded = false;
-            for (int x = minX; x <= maxX; x++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    if (!loaded) {
-                        loaded = world1.isChunkLoaded(x, z);
+        return variables;
+    }
+
+    void markPlaced(@NotNull String area, long placed) {
+        RefreshRecord record = refreshRecords.get(area);
+        if (record != null) {
+            record.setPlaced(placed);
+        }
+    }
+
+    void markRefreshed(@NotNull String area, long timestamp) {
+        RefreshRecord record = refreshRecords.computeIfAbsent(area, k -> new RefreshRecord(timestamp));
+        record.setTimestamp(timestamp);
+        record.getCountdowns().clear();
+        record.setScheduled(0L);
+        record.setMined(0L);
+        record.setSkipped(null);
+        RefreshSynchronizer synchronizer = this.synchronizer;
+        if (synchronizer != null && !temporaryAreas.containsKey(area)) {
+            synchronizer.publish(area, timestamp);
+        }
+    }
+
+    boolean isRefreshCancelled(@NotNull String area, boolean force) {
+        if (!NaturalResourceAreaEvent.isListened(PreRefreshEvent.getHandlerList())) {
+            return false;
+        }
+        PreRefreshEvent event = new PreRefreshEvent(area, force);
+        Bukkit.getPluginManager().callEvent(event);
+        return event.isCancelled();
+    }
+
+    void postRefresh(@NotNull RefreshReport report) {
+        if (NaturalResourceAreaEvent.isListened(PostRefreshEvent.getHandlerList())) {
+            Bukkit.getPluginManager().callEvent(new PostRefreshEvent(report));
+        }
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<RefreshReport> refreshAsync(@NotNull String area) {
+        Validation.notNullOrBlank(area, "area must not be null or blank.");
+        RefreshJob job = refreshJobs.computeIfAbsent(area, k -> {
+            RefreshJob job1 = new RefreshJob(this, k);
+            refreshQueue.add(job1);
+            return job1;
+        });
+        return job.getFuture();
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<List<RefreshReport>> refresh(@NotNull Collection<String> areas) {
+        Validation.notNull(areas, "areas must not be null.");
+        List<CompletableFuture<RefreshReport>> futures = new ArrayList<>(areas.size());
+        for (String area : areas) {
+            futures.add(refreshAsync(area));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(v -> {
+                    List<RefreshReport> reports = new ArrayList<>(futures.size());
+                    for (CompletableFuture<RefreshReport> future : futures) {
+                        reports.add(future.join());
                     }
-                    A:
-                    for (int y = minY; y <= maxY; y++) {
-                        Block block = world1.getBlockAt(x, y, z);
-                        if (RefreshMode.FILL.equals(refresh.getMode())) {
-                            if (!block.isEmpty()) {
-                                continue;
-                            }
-                        }
-                        Material material = block.getType();
-                        String name = material.name();
-                        for (NaturalResourceAreaConfiguration.Block block1 : area1.getWhitelist()) {
-                            if (!"minecraft:".equalsIgnoreCase(block1.getNamespace())) {
-                                continue;
-                            }
-                            if (!block1.getName().equalsIgnoreCase(name)) {
-                                continue;
-                            }
-                            if (block1.getData() == block.getData()) {
+                    return reports;
+                });
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<List<RefreshReport>> refreshAll() {
+        return refresh(getAreas());
+    }
+
+    private void processRefreshQueue() {
+        long deadline = System.nanoTime() + REFRESH_BUDGET;
+        RefreshJob job;
+        while ((job = refreshQueue.peek()) != null) {
+            boolean done;
+            try {
+                done = job.process(deadline);
+            } catch (Throwable e) {
+                Log.error(e);
+                job.getFuture().completeExceptionally(e);
+                done = true;
+            }
+            if (!done) {
+                break;
+            }
+            refreshQueue.poll();
+            refreshJobs.remove(job.getArea(), job);
+            if (System.nanoTime() >= deadline) {
+                return;
+            }
+        }
+        EstimateJob estimateJob;
+        while (System.nanoTime() < deadline && (estimateJob = estimateQueue.peek()) != null) {
+            boolean done;
+            try {
+                done = estimateJob.process(deadline);
+            } catch (Throwable e) {
+                Log.error(e);
+                estimateJob.getFuture().completeExceptionally(e);
+                done = true;
+            }
+            if (!done) {
+                break;
+            }
+            estimateQueue.poll();
+        }
+    }
+
+    @Nullable
+    NaturalResourceAreaConfiguration.Area getArea(@NotNull String area) {
+        NaturalResourceAreaConfiguration.Area area1 = configuration.getAreas().get(area);
+        return area1 == null ? temporaryAreas.get(area) : area1;
+    }
+
+    boolean isConfigured(@NotNull String area) {
+        return configuration.getAreas().containsKey(area);
+    }
+
+    void addTemporaryAreas(@NotNull Collection<NaturalResourceAreaConfiguration.Area> areas) {
+        for (NaturalResourceAreaConfiguration.Area area : areas) {
+            temporaryAreas.put(area.getName(), area);
+        }
+    }
+
+    void removeTemporaryAreas(@NotNull Collection<String> areas) {
+        for (String area : areas) {
+            if (temporaryAreas.remove(area) != null) {
+                refreshRecords.remove(area);
+                resourceCounters.remove(area);
+            }
+        }
+    }
+
+    // 与队列刷新共用每 tick 的时间预算，大区域的扫描分摊到多个 tick，不会阻塞主线程
+    @NotNull
+    @Override
+    public CompletableFuture<RefreshEstimate> estimate(@NotNull String area) {
+        Validation.notNullOrBlank(area, "area must not be null or blank.");
+        EstimateJob job = new EstimateJob(this, area);
+        estimateQueue.add(job);
+        return job.getFuture();
+    }
+
+    @NotNull
+    RefreshEstimate estimate(@NotNull String area, @NotNull RefreshPlan plan, long duration) {
+        Map<String, Long> materials = new TreeMap<>();
+        Set<Long> chunks = new HashSet<>();
+        long written = 0L;
+        List<Block> blocks = plan.getBlocks();
+        List<NaturalResourceAreaConfiguration.Block> selections = plan.getSelections();
+        // 与实际刷新一致，区域内没有已加载的区块时不会写入
+        for (int i = 0; plan.isLoaded() && i < blocks.size(); i++) {
+            NaturalResourceAreaConfiguration.Block selected = selections.get(i);
+            if (selected == null || plan.getStates().get(selected) == null) {
+                continue;
+            }
+            Block block = blocks.get(i);
+            chunks.add(RefreshPlan.chunkKey(block));
+            materials.merge(
+                    selected.getNamespace() + ":" + selected.getName() + "$" + selected.getData(), 1L, Long::sum);
+            written++;
+        }
+        long writtenTotal = this.writtenBlocks.get();
+        Long writeDuration =
+                writtenTotal == 0L ? null : (long) ((double) this.writeNanos.get() / writtenTotal * written);
+        return new RefreshEstimate(
+                area,
+                plan.isLoaded(),
+                plan.getScanned(),
+                written,
+                materials,
+                chunks.size(),
+                plan.getUnloadedChunks().size(),
+                duration,
+                writeDuration,
+                plan.getRetainedSize());
+    }
+
+    @NotNull
+    @Override
+    public CompletableFuture<LoadTestReport> loadTest(
+            int size, int count, int rounds, @NotNull RefreshMode mode, boolean queued) {
+        Validation.notNull(mode, "mode must not be null.");
+        return LoadTest.start((Plugin) contextHolder, this, size, count, rounds, mode, queued);
+    }
+
+    @NotNull
+    RefreshPlan plan(
+            @Nullable String area,
+            @NotNull NaturalResourceAreaConfiguration.Area area1,
+            @NotNull World world1,
+            @NotNull Map<NaturalResourceAreaConfiguration.Block, Double> resources) {
+        return plan(area, area1, world1, resources, false);
+    }
+
+    // skipUnloaded 为 true 时跳过未加载的区块，不会触发区块加载或生成
+    @NotNull
+    RefreshPlan plan(
+            @Nullable String area,
+            @NotNull NaturalResourceAreaConfiguration.Area area1,
+            @NotNull World world1,
+            @NotNull Map<NaturalResourceAreaConfiguration.Block, Double> resources,
+            boolean skipUnloaded) {
+        RefreshPlan plan = newPlan(area1);
+        scan(area, area1, world1, plan, skipUnloaded, Long.MAX_VALUE);
+        select(area, area1, plan, resources);
+        return plan;
+    }
+
+    @NotNull
+    RefreshPlan newPlan(@NotNull NaturalResourceAreaConfiguration.Area area1) {
+        RefreshPlan plan = new RefreshPlan();
+        BlockAdapter adapter = BlockAdapter.get();
+        for (NaturalResourceAreaConfiguration.Block block1 : area1.getWhitelist()) {
+            BlockAdapter.State state = adapter.resolve(block1);
+            if (state != null) {
+                plan.getWhitelist().add(state);
+            }
+        }
+        return plan;
+    }
+
+    // 按列扫描区域，到达 deadline 时保存进度并返回 false，再次调用时从下一列继续
+    boolean scan(
+            @Nullable String area,
+            @NotNull NaturalResourceAreaConfiguration.Area area1,
+            @NotNull World world1,
+            @NotNull RefreshPlan plan,
+            boolean skipUnloaded,
+            long deadline) {
+        NaturalResourceAreaConfiguration.Region region = area1.getRegion();
+        boolean fill = RefreshMode.FILL.equals(area1.getRefresh().getMode());
+        int minX = region.getMinX();
+        int minZ = region.getMinZ();
+        long depth = region.getMaxZ() - minZ + 1L;
+        long columns = (region.getMaxX() - minX + 1L) * depth;
+        BlockAdapter adapter = BlockAdapter.get();
+        List<BlockAdapter.State> whitelist = plan.getWhitelist();
+        List<Block> areaBlocks = plan.getBlocks();
+        int blocksBefore = areaBlocks.size();
+        boolean loaded = plan.isLoaded();
+        long scanned = 0L;
+        long first = plan.getColumn();
+        long column = first;
+        Object event = RefreshRecorder.SCAN.begin();
+        for (; column < columns; column++) {
+            // 每次调用至少扫描一列，保证在预算不足时仍有进展
+            if (column != first && System.nanoTime() >= deadline) {
+                break;
+            }
+            int x = (int) (minX + column / depth);
+            int z = (int) (minZ + column % depth);
+            int rangeStart = region.getRangeStart(x, z);
+            int rangeEnd = region.getRangeEnd(x, z);
+            if (rangeStart == rangeEnd) {
+                continue;
+            }
+            if (skipUnloaded || !loaded) {
+                boolean chunkLoaded = world1.isChunkLoaded(x >> 4, z >> 4);
+                loaded |= chunkLoaded;
+                if (!chunkLoaded && skipUnloaded) {
+                    plan.getUnloadedChunks().add(RefreshPlan.chunkKey(x, z));
+                    continue;
+                }
+            }
+            for (int r = rangeStart; r < rangeEnd; r += 2) {
+                int maxY = region.getRange(r + 1);
+                A:
+                for (int y = region.getRange(r); y <= maxY; y++) {
+                    scanned++;
+                    Block block = world1.getBlockAt(x, y, z);
+                    if (fill && !block.isEmpty()) {
+                        continue;
+                    }
+                    if (!whitelist.isEmpty()) {
+                        Object read = adapter.read(block);
+                        for (BlockAdapter.State state : whitelist) {
+                            if (state.matches(read)) {
                                 continue A;
                             }
                         }
-                        areaBlocks.add(block);
                     }
+                    areaBlocks.add(block);
                 }
             }
-            if (loaded && !areaBlocks.isEmpty()) {
-                double totalWeight = 0.0;
-                for (Map.Entry<NaturalResourceAreaConfiguration.Block, Double> entry : resources.entrySet()) {
-                    totalWeight += entry.getValue();
-                }
+        }
+        if (event != null) {
+            RefreshRecorder.SCAN.commit(event, area, scanned, (long) (areaBlocks.size() - blocksBefore));
+        }
+        plan.setColumn(column);
+        plan.setLoaded(loaded);
+        plan.setScanned(plan.getScanned() + scanned);
+        return column >= columns;
+    }
 
-                Random random = new Random();
-                for (Block block : areaBlocks) {
-                    double randomValue = random.nextDouble() * totalWeight;
-                    double currentWeight = 0.0;
-
-                    NaturalResourceAreaConfiguration.Block selected = null;
-                    for (Map.Entry<NaturalResourceAreaConfiguration.Block, Double> entry : resources.entrySet()) {
-                        currentWeight += entry.getValue();
-                        if (randomValue <= currentWeight) {
-                            selected = entry.getKey();
-                            break;
-                        }
-                    }
+    void select(
+            @Nullable String area,
+            @NotNull NaturalResourceAreaConfiguration.Area area1,
+            @NotNull RefreshPlan plan,
+            @NotNull Map<NaturalResourceAreaConfiguration.Block, Double> resources) {
+        NaturalResourceAreaConfiguration.Refresh refresh = area1.getRefresh();
+        List<Block> areaBlocks = plan.getBlocks();
+        if (areaBlocks.isEmpty() || resources.isEmpty()) {
+            return;
+        }
+        BlockAdapter adapter = BlockAdapter.get();
+        double totalWeight = 0.0;
+        for (Map.Entry<NaturalResourceAreaConfiguration.Block, Double> entry : resources.entrySet()) {
+            totalWeight += entry.getValue();
+            plan.getStates().put(entry.getKey(), adapter.resolve(entry.getKey()));
+        }
 
-                    if (selected != null) {
-                        Material material = Material.matchMaterial(selected.getName());
-                        if (material != null) {
-                            BlockState state = block.getState();
-                            state.setType(material);
-                            state.setRawData(selected.getData());
-                            state.update(true);
-                        }
+        Object event = RefreshRecorder.PLAN.begin();
+        Random random = new Random();
+        List<NaturalResourceAreaConfiguration.Block> selections = plan.getSelections();
+        long[] counts = new long[resources.size()];
+        if (RefreshMode.SPARSE.equals(refresh.getMode()) && totalWeight > 0.0) {
+            sparse(selections, areaBlocks.size(), resources, totalWeight, random, counts);
+        } else {
+            for (int i = 0; i < areaBlocks.size(); i++) {
+                double randomValue = random.nextDouble() * totalWeight;
+                double currentWeight = 0.0;
+
+                NaturalResourceAreaConfiguration.Block selected = null;
+                int index = 0;
+                for (Map.Entry<NaturalResourceAreaConfiguration.Block, Double> entry : resources.entrySet()) {
+                    currentWeight += entry.getValue();
+                    if (randomValue <= currentWeight) {
+                        selected = entry.getKey();
+                        break;
                     }
+                    index++;
+                }
+                selections.add(selected);
+                if (selected != null) {
+                    counts[index]++;
                 }
+            }
+        }
+        long placed = 0L;
+        int index = 0;
+        for (NaturalResourceAreaConfiguration.Block resource : resources.keySet()) {
+            BlockAdapter.State state = plan.getStates().get(resource);
+            long count = state == null || state.isAir() ? 0L : counts[index];
+            plan.getCounts().put(resource, count);
+            placed += count;
+            index++;
+        }
+        if (event != null) {
+            RefreshRecorder.PLAN.commit(event, area, placed);
+        }
+        plan.setPlaced(placed);
+    }
 
-                for (NaturalResourceAreaConfiguration.Action action : refresh.getFinish()) {
-                    executeAction(worldPlayers, areaPlayers, variables, action);
+    // 稀疏刷新：先以权重最高的资源整体填充，再按几何分布跳过位置直接抽取其余资源的位置，
+    // 随机数次数与放置的稀有资源数量成正比，每个位置的期望分布与逐个抽样一致
+    private static void sparse(
+            @NotNull List<NaturalResourceAreaConfiguration.Block> selections,
+            int size,
+            @NotNull Map<NaturalResourceAreaConfiguration.Block, Double> resources,
+            double totalWeight,
+            @NotNull Random random,
+            @NotNull long[] counts) {
+        NaturalResourceAreaConfiguration.Block[] blocks =
+                resources.keySet().toArray(new NaturalResourceAreaConfiguration.Block[0]);
+        double[] weights = new double[blocks.length];
+        int base = 0;
+        int index = 0;
+        for (Double weight : resources.values()) {
+            weights[index] = weight;
+            if (weight > weights[base]) {
+                base = index;
+            }
+            index++;
+        }
+        selections.addAll(Collections.nCopies(size, blocks[base]));
+        counts[base] = size;
+        double rareWeight = totalWeight - weights[base];
+        if (rareWeight <= 0.0) {
+            return;
+        }
+        double skip = Math.log1p(-rareWeight / totalWeight);
+        int position = -1;
+        while (true) {
+            double gap = Math.floor(Math.log(1.0 - random.nextDouble()) / skip);
+            if (gap >= size - 1 - position) {
+                break;
+            }
+            position += 1 + (int) gap;
+            double randomValue = random.nextDouble() * rareWeight;
+            double currentWeight = 0.0;
+            int selected = -1;
+            for (int i = 0; i < blocks.length; i++) {
+                if (i == base || weights[i] <= 0.0) {
+                    continue;
+                }
+                selected = i;
+                currentWeight += weights[i];
+                if (randomValue < currentWeight) {
+                    break;
                 }
             }
+            selections.set(position, blocks[selected]);
+            counts[base]--;
+            counts[selected]++;
         }
+    }
 
-        refreshRecords.put(area, record);
-        return true;
+    long write(@Nullable String area, @NotNull RefreshPlan plan) {
+        long written = 0L;
+        for (int[] chunk : plan.getChunks()) {
+            written += writeChunk(area, plan, chunk);
+        }
+        return written;
+    }
+
+    long writeChunk(@Nullable String area, @NotNull RefreshPlan plan, @NotNull int[] chunk) {
+        Object event = RefreshRecorder.WRITE_CHUNK.begin();
+        long start = System.nanoTime();
+        long written = 0L;
+        List<Block> blocks = plan.getBlocks();
+        List<NaturalResourceAreaConfiguration.Block> selections = plan.getSelections();
+        for (int i : chunk) {
+            NaturalResourceAreaConfiguration.Block selected = selections.get(i);
+            if (selected == null) {
+                continue;
+            }
+            BlockAdapter.State state = plan.getStates().get(selected);
+            if (state != null) {
+                state.write(blocks.get(i));
+                written++;
+            }
+        }
+        if (written != 0L) {
+            this.writeNanos.addAndGet(System.nanoTime() - start);
+            this.writtenBlocks.addAndGet(written);
+        }
+        if (event != null && chunk.length != 0) {
+            Block block = blocks.get(chunk[0]);
+            RefreshRecorder.WRITE_CHUNK.commit(event, area, block.getX() >> 4, block.getZ() >> 4, written);
+        }
+        if (area != null
+                && chunk.length != 0
+                && NaturalResourceAreaEvent.isListened(RefreshChunkEvent.getHandlerList())) {
+            Block block = blocks.get(chunk[0]);
+            Bukkit.getPluginManager()
+                    .callEvent(new RefreshChunkEvent(
+                            area, block.getWorld(), block.getX() >> 4, block.getZ() >> 4, written));
+        }
+        return written;
     }
 
-    private void executeAction(
+    int getCleanupChunks(@NotNull NaturalResourceAreaConfiguration.Area area1) {
+        Set<EntityType> cleanup = area1.getRefresh().getCleanup();
+        if (cleanup == null || cleanup.isEmpty()) {
+            return 0;
+        }
+        NaturalResourceAreaConfiguration.Region region = area1.getRegion();
+        int width = (region.getMaxX() >> 4) - (region.getMinX() >> 4) + 1;
+        int depth = (region.getMaxZ() >> 4) - (region.getMinZ() >> 4) + 1;
+        return width * depth;
+    }
+
+    long cleanup(@NotNull NaturalResourceAreaConfiguration.Area area1, @NotNull World world1) {
+        long removed = 0L;
+        int chunks = getCleanupChunks(area1);
+        for (int i = 0; i < chunks; i++) {
+            removed += cleanup(area1, world1, i);
+        }
+        return removed;
+    }
+
+    long cleanup(@NotNull NaturalResourceAreaConfiguration.Area area1, @NotNull World world1, int index) {
+        Set<EntityType> cleanup = area1.getRefresh().getCleanup();
+        if (cleanup == null || cleanup.isEmpty()) {
+            return 0L;
+        }
+        NaturalResourceAreaConfiguration.Region region = area1.getRegion();
+        int width = (region.getMaxX() >> 4) - (region.getMinX() >> 4) + 1;
+        int chunkX = (region.getMinX() >> 4) + index % width;
+        int chunkZ = (region.getMinZ() >> 4) + index / width;
+        if (!world1.isChunkLoaded(chunkX, chunkZ)) {
+            return 0L;
+        }
+        long removed = 0L;
+        for (Entity entity : world1.getChunkAt(chunkX, chunkZ).getEntities()) {
+            if (!cleanup.contains(entity.getType())) {
+                continue;
+            }
+            Location loc = entity.getLocation();
+            if (region.contains(loc.getX(), loc.getY(), loc.getZ())) {
+                entity.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    void executeAction(
+            @Nullable String area,
             List<Player> worldPlayers,
             List<Player> areaPlayers,
             Map<String, String> variables,
@@ -258,6 +952,7 @@ public class NaturalResourceAreaServiceImpl
         for (Map.Entry<String, String> entry : variables.entrySet()) {
             command = command.replace(entry.getKey(), entry.getValue());
         }
+        Object event = RefreshRecorder.ACTION.begin();
         try {
             if (players == null) {
                 Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command);
@@ -269,6 +964,10 @@ public class NaturalResourceAreaServiceImpl
         } catch (CommandException e) {
             Log.error(e);
         }
+        if (event != null) {
+            RefreshRecorder.ACTION.commit(
+                    event, area, action.getSelector().name(), command, players == null ? 0 : players.size());
+        }
     }
 
     @Override
@@ -308,13 +1007,101 @@ public class NaturalResourceAreaServiceImpl
     @Override
     public void setConfiguration(@NotNull NaturalResourceAreaConfiguration configuration) {
         this.configuration = configuration;
+        resourceCounters.keySet().retainAll(configuration.getAreas().keySet());
+        if (initialized) {
+            RefreshSynchronizer synchronizer = this.synchronizer;
+            if (synchronizer != null) {
+                synchronizer.close();
+            }
+            this.synchronizer =
+                    RefreshSynchronizer.start((Plugin) contextHolder, configuration.getSynchronization());
+        }
     }
 
     @Data
-    @AllArgsConstructor
     private static class RefreshRecord {
 
         private final Set<Long> countdowns = new CopyOnWriteArraySet<>();
         private long timestamp;
+        private long lastCountdown = Long.MIN_VALUE;
+        private long scheduled = 0L;
+        private long mined = 0L;
+        private long placed = 0L;
+        private Boolean skipped = null;
+
+        private RefreshRecord(long timestamp) {
+            this.timestamp = timestamp;
+        }
+    }
+
+    @Data
+    static class RefreshPlan {
+
+        private static final long BLOCK_SIZE = 32L;
+        private static final long REFERENCE_SIZE = 8L;
+        private static final long ARRAY_HEADER_SIZE = 16L;
+
+        private final List<Block> blocks = new ArrayList<>();
+        private final List<NaturalResourceAreaConfiguration.Block> selections = new ArrayList<>();
+        private final Map<NaturalResourceAreaConfiguration.Block, BlockAdapter.State> states = new HashMap<>();
+        private final Map<NaturalResourceAreaConfiguration.Block, Long> counts = new HashMap<>();
+        private final Set<Long> unloadedChunks = new HashSet<>();
+        private final List<BlockAdapter.State> whitelist = new ArrayList<>();
+        private long column;
+        private boolean loaded;
+        private long scanned;
+        private long placed;
+        private List<int[]> chunks;
+
+        static long chunkKey(@NotNull Block block) {
+            return chunkKey(block.getX(), block.getZ());
+        }
+
+        static long chunkKey(int x, int z) {
+            return ((long) (x >> 4) << 32) | ((z >> 4) & 0xFFFFFFFFL);
+        }
+
+        // 按计划持有的结构估算内存：每个方块一个 Block 对象及其在方块、选择列表中的引用，以及区块分组的索引
+        long getRetainedSize() {
+            long size = blocks.size();
+            long retained = size * (BLOCK_SIZE + REFERENCE_SIZE * 2L + Integer.BYTES);
+            if (chunks != null) {
+                retained += (long) chunks.size() * ARRAY_HEADER_SIZE;
+            }
+            return retained;
+        }
+
+        @NotNull
+        List<int[]> getChunks() {
+            if (chunks != null) {
+                return chunks;
+            }
+            int size = blocks.size();
+            Map<Long, Integer> groups = new HashMap<>();
+            int[] owners = new int[size];
+            int[] sizes = new int[size];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                long key = chunkKey(blocks.get(i));
+                Integer group = groups.get(key);
+                if (group == null) {
+                    group = count++;
+                    groups.put(key, group);
+                }
+                owners[i] = group;
+                sizes[group]++;
+            }
+            List<int[]> chunks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                chunks.add(new int[sizes[i]]);
+            }
+            int[] offsets = new int[count];
+            for (int i = 0; i < size; i++) {
+                int group = owners[i];
+                chunks.get(group)[offsets[group]++] = i;
+            }
+            this.chunks = chunks;
+            return chunks;
+        }
     }
 }
@@ -0,0 +1,125 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.api.RefreshReport;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.configuration.NaturalResourceAreaConfiguration;
+import team.idealstate.sugar.validate.annotation.NotNull;
+
+final class RefreshJob {
+
+    private final NaturalResourceAreaServiceImpl service;
+
+    @Getter
+    private final String area;
+
+    @Getter
+    private final CompletableFuture<RefreshReport> future = new CompletableFuture<>();
+
+    private long started = 0L;
+    private NaturalResourceAreaConfiguration.Area area1;
+    private World world1;
+    private NaturalResourceAreaServiceImpl.RefreshPlan plan;
+    private boolean planned = false;
+    private int next = 0;
+    private long written = 0L;
+    private int cleaned = 0;
+    private long removed = 0L;
+
+    RefreshJob(@NotNull NaturalResourceAreaServiceImpl service, @NotNull String area) {
+        this.service = service;
+        this.area = area;
+    }
+
+    boolean process(long deadline) {
+        if (plan == null) {
+            this.started = System.nanoTime();
+            this.area1 = service.getArea(area);
+            if (area1 == null || area1.getResources().isEmpty()) {
+                return complete(true);
+            }
+            this.world1 = Bukkit.getWorld(area1.getWorld());
+            if (world1 == null) {
+                return complete(true);
+            }
+            if (service.isRefreshCancelled(area, true)) {
+                return complete(true);
+            }
+            service.markRefreshed(area, System.currentTimeMillis());
+            this.plan = service.newPlan(area1);
+        } else if (Bukkit.getWorld(area1.getWorld()) != world1) {
+            return complete(true);
+        }
+        if (!planned) {
+            // 扫描与写入共用每 tick 的时间预算，大区域的扫描会分摊到多个 tick
+            if (!service.scan(area, area1, world1, plan, false, deadline)) {
+                return false;
+            }
+            service.select(area, area1, plan, new LinkedHashMap<>(area1.getResources()));
+            this.planned = true;
+            service.markPlaced(area, plan.getPlaced());
+            if (!plan.isLoaded() || plan.getBlocks().isEmpty()) {
+                return complete(true);
+            }
+            service.markComposition(area, area1, plan);
+        }
+        List<int[]> chunks = plan.getChunks();
+        while (next < chunks.size()) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            written += service.writeChunk(area, plan, chunks.get(next++));
+        }
+        int cleanupChunks = service.getCleanupChunks(area1);
+        while (cleaned < cleanupChunks) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            removed += service.cleanup(area1, world1, cleaned++);
+        }
+        List<Player> worldPlayers = world1.getPlayers();
+        List<Player> areaPlayers = service.areaPlayers(worldPlayers, area1);
+        Map<String, String> variables = service.variables(area1, 0L);
+        List<NaturalResourceAreaConfiguration.Action> finish = area1.getRefresh().getFinish();
+        Object event = RefreshRecorder.FINISH.begin();
+        for (NaturalResourceAreaConfiguration.Action action : finish) {
+            service.executeAction(area, worldPlayers, areaPlayers, variables, action);
+        }
+        if (event != null) {
+            RefreshRecorder.FINISH.commit(event, area, removed, (long) finish.size());
+        }
+        return complete(false);
+    }
+
+    private boolean complete(boolean aborted) {
+        long duration = started == 0L ? 0L : System.nanoTime() - started;
+        RefreshReport report = new RefreshReport(area, written, duration, next, removed, aborted);
+        service.postRefresh(report);
+        future.complete(report);
+        return true;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.service;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import team.idealstate.sugar.validate.annotation.NotNull;
+import team.idealstate.sugar.validate.annotation.Nullable;
+
+// 项目以 Java 8 为编译目标，无法直接继承 jdk.jfr.Event，因此通过 jdk.jfr.EventFactory 在运行时定义事件；
+// 运行于不支持 JFR 的 JVM 或未在记录时，begin() 返回 null，调用方仅需一次判空
+final class RefreshRecorder {
+
+    private static final String PREFIX = "pers.ketikai.naturalresourcearea.";
+    private static final String CATEGORY = "Natural Resource Area";
+
+    static final RefreshRecorder SCAN = new RefreshRecorder(
+            "Scan", "扫描区域方块", field(String.class, "area"), field(long.class, "scanned"), field(long.class, "blocks"));
+    static final RefreshRecorder PLAN =
+            new RefreshRecorder("Plan", "选择资源方块", field(String.class, "area"), field(long.class, "placed"));
+    static final RefreshRecorder WRITE_CHUNK = new RefreshRecorder(
+            "WriteChunk",
+            "写入区块",
+            field(String.class, "area"),
+            field(int.class, "chunkX"),
+            field(int.class, "chunkZ"),
+            field(long.class, "written"));
+    static final RefreshRecorder FINISH = new RefreshRecorder(
+            "Finish", "完成刷新", field(String.class, "area"), field(long.class, "removed"), field(long.class, "actions"));
+    static final RefreshRecorder ACTION = new RefreshRecorder(
+            "Action",
+            "执行动作",
+            field(String.class, "area"),
+            field(String.class, "selector"),
+            field(String.class, "command"),
+            field(int.class, "players"));
+
+    private final MethodHandle isEnabled;
+    private final MethodHandle newEvent;
+    private final MethodHandle begin;
+    private final MethodHandle end;
+    private final MethodHandle shouldCommit;
+    private final MethodHandle set;
+    private final MethodHandle commit;
+    private volatile boolean available;
+
+    private RefreshRecorder(@NotNull String name, @NotNull String label, @NotNull Object[]... fields) {
+        MethodHandle isEnabled = null;
+        MethodHandle newEvent = null;
+        MethodHandle begin = null;
+        MethodHandle end = null;
+        MethodHandle shouldCommit = null;
+        MethodHandle set = null;
+        MethodHandle commit = null;
+        boolean available = false;
+        try {
+            Class<?> eventClass = Class.forName("jdk.jfr.Event");
+            Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+            Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType");
+            Class<?> annotationClass = Class.forName("jdk.jfr.AnnotationElement");
+            Class<?> valueClass = Class.forName("jdk.jfr.ValueDescriptor");
+            Constructor<?> annotation = annotationClass.getConstructor(Class.class, Object.class);
+            Constructor<?> value = valueClass.getConstructor(Class.class, String.class);
+
+            List<Object> annotations = new ArrayList<>(3);
+            annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Name"), PREFIX + name));
+            annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Label"), label));
+            annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Category"), new String[] {CATEGORY}));
+            List<Object> values = new ArrayList<>(fields.length);
+            for (Object[] field : fields) {
+                values.add(value.newInstance(field[0], field[1]));
+            }
+            Object factory =
+                    factoryClass.getMethod("create", List.class, List.class).invoke(null, annotations, values);
+            Object eventType = factoryClass.getMethod("getEventType").invoke(factory);
+
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            MethodType action = MethodType.methodType(void.class, Object.class);
+            isEnabled = lookup.findVirtual(eventTypeClass, "isEnabled", MethodType.methodType(boolean.class))
+                    .bindTo(eventType);
+            newEvent = lookup.findVirtual(factoryClass, "newEvent", MethodType.methodType(eventClass))
+                    .bindTo(factory)
+                    .asType(MethodType.methodType(Object.class));
+            begin = lookup.findVirtual(eventClass, "begin", MethodType.methodType(void.class)).asType(action);
+            end = lookup.findVirtual(eventClass, "end", MethodType.methodType(void.class)).asType(action);
+            shouldCommit = lookup.findVirtual(eventClass, "shouldCommit", MethodType.methodType(boolean.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class));
+            set = lookup.findVirtual(eventClass, "set", MethodType.methodType(void.class, int.class, Object.class))
+                    .asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+            commit = lookup.findVirtual(eventClass, "commit", MethodType.methodType(void.class)).asType(action);
+            available = true;
+        } catch (Throwable ignored) {
+            // 当前 JVM 不提供 JFR，事件全部忽略
+        }
+        this.isEnabled = isEnabled;
+        this.newEvent = newEvent;
+        this.begin = begin;
+        this.end = end;
+        this.shouldCommit = shouldCommit;
+        this.set = set;
+        this.commit = commit;
+        this.available = available;
+    }
+
+    @NotNull
+    private static Object[] field(@NotNull Class<?> type, @NotNull String name) {
+        return new Object[] {type, name};
+    }
+
+    @Nullable
+    Object begin() {
+        if (!available) {
+            return null;
+        }
+        try {
+            if (!(boolean) isEnabled.invokeExact()) {
+                return null;
+            }
+            Object event = (Object) newEvent.invokeExact();
+            begin.invokeExact(event);
+            return event;
+        } catch (Throwable e) {
+            this.available = false;
+            return null;
+        }
+    }
+
+    void commit(@NotNull Object event, Object... values) {
+        try {
+            end.invokeExact(event);
+            if (!(boolean) shouldCommit.invokeExact(event)) {
+                return;
+            }
+            for (int i = 0; i < values.length; i++) {
+                set.invokeExact(event, i, values[i]);
+            }
+            commit.invokeExact(event);
+        } catch (Throwable e) {
+            this.available = false;
+        }
+    }
+}
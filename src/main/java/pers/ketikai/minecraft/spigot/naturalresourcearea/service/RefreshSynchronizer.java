@@ -0,0 +1,378 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Data;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.configuration.NaturalResourceAreaConfiguration;
+import team.idealstate.sugar.logging.Log;
+import team.idealstate.sugar.validate.Validation;
+import team.idealstate.sugar.validate.annotation.NotNull;
+import team.idealstate.sugar.validate.annotation.Nullable;
+
+final class RefreshSynchronizer implements Listener {
+
+    private static final String LEASE = "refresh";
+    private static final int FALLBACK_FAILURES = 3;
+    private static final long FALLBACK_TIMEOUT = 30L * 1000L;
+
+    private final Plugin plugin;
+    private final NaturalResourceAreaConfiguration.Synchronization synchronization;
+    private final String refreshTable;
+    private final String leaseTable;
+    private final String cycleTable;
+    private final Map<String, Long> timestamps = new ConcurrentHashMap<>();
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+    private final Map<String, Cycle> cycles = new ConcurrentHashMap<>();
+    private final Map<String, Cycle> pendingCycles = new ConcurrentHashMap<>();
+    private volatile boolean leader = false;
+    private volatile boolean ready = false;
+    private volatile boolean local = false;
+    private volatile boolean closed = false;
+    private volatile int failures = 0;
+    private volatile BukkitTask task;
+    private final long started = System.currentTimeMillis();
+    private Connection connection;
+
+    RefreshSynchronizer(
+            @NotNull Plugin plugin, @NotNull NaturalResourceAreaConfiguration.Synchronization synchronization) {
+        this.plugin = plugin;
+        this.synchronization = synchronization;
+        this.refreshTable = synchronization.getTable() + "refresh";
+        this.leaseTable = synchronization.getTable() + "lease";
+        this.cycleTable = synchronization.getTable() + "cycle";
+    }
+
+    @Nullable
+    static RefreshSynchronizer start(
+            @NotNull Plugin plugin, @Nullable NaturalResourceAreaConfiguration.Synchronization synchronization) {
+        Validation.notNull(plugin, "plugin must not be null.");
+        if (synchronization == null || !synchronization.getEnabled()) {
+            return null;
+        }
+        RefreshSynchronizer synchronizer = new RefreshSynchronizer(plugin, synchronization);
+        Bukkit.getPluginManager().registerEvents(synchronizer, plugin);
+        long interval = Math.max(synchronization.getInterval(), 1L);
+        synchronizer.task =
+                Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, synchronizer::synchronize, 0L, interval);
+        return synchronizer;
+    }
+
+    boolean isReady() {
+        if (!ready && System.currentTimeMillis() - started >= FALLBACK_TIMEOUT) {
+            fallback("超时未能完成首次同步");
+        }
+        return ready;
+    }
+
+    // 数据库不可用时以本地模式运行，按本服务器的刷新记录独立刷新，恢复连接后重新参与租约竞争
+    boolean isLeader() {
+        return leader || local;
+    }
+
+    private void fallback(@NotNull String reason) {
+        if (local) {
+            return;
+        }
+        this.local = true;
+        this.ready = true;
+        Log.warn("跨服同步" + reason + "，暂以本地模式刷新区域，恢复连接后将自动重新同步。");
+    }
+
+    @Nullable
+    Long getTimestamp(@NotNull String area) {
+        return timestamps.get(area);
+    }
+
+    void publish(@NotNull String area, long timestamp) {
+        Validation.notNullOrBlank(area, "area must not be null or blank.");
+        timestamps.merge(area, timestamp, Math::max);
+        pending.merge(area, timestamp, Math::max);
+    }
+
+    @Nullable
+    Cycle getCycle(@NotNull String area) {
+        return cycles.get(area);
+    }
+
+    // 由领导者发布当前周期的提前刷新时间与跳过决定，跟随者据此保持与领导者一致的倒计时
+    void publishCycle(@NotNull String area, long start, long scheduled, @Nullable Boolean skipped) {
+        Validation.notNullOrBlank(area, "area must not be null or blank.");
+        Cycle cycle = new Cycle(start, scheduled, skipped);
+        cycles.merge(area, cycle, Cycle::newer);
+        pendingCycles.merge(area, cycle, Cycle::newer);
+    }
+
+    void synchronize() {
+        synchronize(System.currentTimeMillis());
+    }
+
+    synchronized void synchronize(long now) {
+        if (closed) {
+            return;
+        }
+        try {
+            Connection connection = connect();
+            flush(connection);
+            renew(connection, now);
+            pull(connection);
+            this.failures = 0;
+            if (local) {
+                this.local = false;
+                Log.warn("跨服同步已恢复连接，退出本地模式。");
+            }
+        } catch (SQLException e) {
+            leader = false;
+            Log.error(e);
+            disconnect();
+            if (++failures >= FALLBACK_FAILURES) {
+                fallback("连续 " + failures + " 次同步失败");
+            }
+        }
+    }
+
+    // 由主线程调用，不等待进行中的同步，租约释放与断开连接在独立线程中完成
+    void close() {
+        this.closed = true;
+        BukkitTask task = this.task;
+        this.task = null;
+        if (task != null) {
+            task.cancel();
+        }
+        HandlerList.unregisterAll(this);
+        Thread thread = new Thread(this::release, "natural-resource-area-synchronizer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    synchronized void release() {
+        if (connection != null && leader) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "UPDATE " + leaseTable + " SET expires = 0 WHERE name = ? AND owner = ?")) {
+                statement.setString(1, LEASE);
+                statement.setString(2, synchronization.getServer());
+                statement.executeUpdate();
+            } catch (SQLException e) {
+                Log.error(e);
+            }
+        }
+        leader = false;
+        disconnect();
+    }
+
+    @EventHandler
+    public void onPluginDisable(PluginDisableEvent event) {
+        if (plugin.equals(event.getPlugin())) {
+            close();
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        if (connection != null && connection.isValid(1)) {
+            return connection;
+        }
+        disconnect();
+        Connection connection = DriverManager.getConnection(
+                synchronization.getUrl(), synchronization.getUsername(), synchronization.getPassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + refreshTable
+                    + " (area VARCHAR(64) NOT NULL PRIMARY KEY, refreshed_at BIGINT NOT NULL)");
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + leaseTable
+                    + " (name VARCHAR(64) NOT NULL PRIMARY KEY, owner VARCHAR(64) NOT NULL, expires BIGINT NOT NULL)");
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + cycleTable
+                    + " (area VARCHAR(64) NOT NULL PRIMARY KEY, cycle_start BIGINT NOT NULL,"
+                    + " scheduled_at BIGINT NOT NULL, skipped INT NOT NULL)");
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        this.connection = connection;
+        return connection;
+    }
+
+    private void disconnect() {
+        Connection connection = this.connection;
+        this.connection = null;
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                Log.error(e);
+            }
+        }
+    }
+
+    private void flush(Connection connection) throws SQLException {
+        for (Map.Entry<String, Long> entry : pending.entrySet()) {
+            String area = entry.getKey();
+            long timestamp = entry.getValue();
+            int updated;
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "UPDATE " + refreshTable + " SET refreshed_at = ? WHERE area = ? AND refreshed_at < ?")) {
+                statement.setLong(1, timestamp);
+                statement.setString(2, area);
+                statement.setLong(3, timestamp);
+                updated = statement.executeUpdate();
+            }
+            if (updated == 0) {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "INSERT INTO " + refreshTable + " (area, refreshed_at) VALUES (?, ?)")) {
+                    statement.setString(1, area);
+                    statement.setLong(2, timestamp);
+                    statement.executeUpdate();
+                } catch (SQLException e) {
+                    if (!isConstraintViolation(e)) {
+                        throw e;
+                    }
+                    // 记录已存在且时间戳不早于本次发布
+                }
+            }
+            pending.remove(area, timestamp);
+        }
+        for (Map.Entry<String, Cycle> entry : pendingCycles.entrySet()) {
+            String area = entry.getKey();
+            Cycle cycle = entry.getValue();
+            int updated;
+            try (PreparedStatement statement = connection.prepareStatement("UPDATE " + cycleTable
+                    + " SET cycle_start = ?, scheduled_at = ?, skipped = ? WHERE area = ? AND cycle_start <= ?")) {
+                statement.setLong(1, cycle.getStart());
+                statement.setLong(2, cycle.getScheduled());
+                statement.setInt(3, cycle.encodeSkipped());
+                statement.setString(4, area);
+                statement.setLong(5, cycle.getStart());
+                updated = statement.executeUpdate();
+            }
+            if (updated == 0) {
+                try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + cycleTable
+                        + " (area, cycle_start, scheduled_at, skipped) VALUES (?, ?, ?, ?)")) {
+                    statement.setString(1, area);
+                    statement.setLong(2, cycle.getStart());
+                    statement.setLong(3, cycle.getScheduled());
+                    statement.setInt(4, cycle.encodeSkipped());
+                    statement.executeUpdate();
+                } catch (SQLException e) {
+                    if (!isConstraintViolation(e)) {
+                        throw e;
+                    }
+                    // 记录已存在且周期晚于本次发布
+                }
+            }
+            pendingCycles.remove(area, cycle);
+        }
+    }
+
+    private static boolean isConstraintViolation(@NotNull SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLIntegrityConstraintViolationException || (state != null && state.startsWith("23"));
+    }
+
+    private void renew(Connection connection, long now) throws SQLException {
+        long expires = now + Math.max(synchronization.getLease(), 1L) * 1000L;
+        String server = synchronization.getServer();
+        int updated;
+        try (PreparedStatement statement = connection.prepareStatement("UPDATE " + leaseTable
+                + " SET owner = ?, expires = ? WHERE name = ? AND (owner = ? OR expires < ?)")) {
+            statement.setString(1, server);
+            statement.setLong(2, expires);
+            statement.setString(3, LEASE);
+            statement.setString(4, server);
+            statement.setLong(5, now);
+            updated = statement.executeUpdate();
+        }
+        if (updated == 0) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO " + leaseTable + " (name, owner, expires) VALUES (?, ?, ?)")) {
+                statement.setString(1, LEASE);
+                statement.setString(2, server);
+                statement.setLong(3, expires);
+                updated = statement.executeUpdate();
+            } catch (SQLException e) {
+                if (!isConstraintViolation(e)) {
+                    throw e;
+                }
+                // 租约已被其他服务器持有
+            }
+        }
+        this.leader = updated > 0;
+    }
+
+    private void pull(Connection connection) throws SQLException {
+        try (PreparedStatement statement =
+                        connection.prepareStatement("SELECT area, refreshed_at FROM " + refreshTable);
+                ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                timestamps.merge(resultSet.getString(1), resultSet.getLong(2), Math::max);
+            }
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT area, cycle_start, scheduled_at, skipped FROM " + cycleTable);
+                ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                String area = resultSet.getString(1);
+                // 尚未写入的本地发布优先，避免被数据库中的旧值覆盖
+                if (!pendingCycles.containsKey(area)) {
+                    Cycle cycle = new Cycle(
+                            resultSet.getLong(2), resultSet.getLong(3), Cycle.decodeSkipped(resultSet.getInt(4)));
+                    cycles.merge(area, cycle, Cycle::newer);
+                }
+            }
+        }
+        this.ready = true;
+    }
+
+    @Data
+    static final class Cycle {
+
+        private final long start;
+
+        private final long scheduled;
+
+        @Nullable
+        private final Boolean skipped;
+
+        @NotNull
+        private static Cycle newer(@NotNull Cycle cycle, @NotNull Cycle cycle1) {
+            return cycle1.start >= cycle.start ? cycle1 : cycle;
+        }
+
+        private int encodeSkipped() {
+            return skipped == null ? -1 : skipped ? 1 : 0;
+        }
+
+        @Nullable
+        private static Boolean decodeSkipped(int skipped) {
+            return skipped < 0 ? null : skipped > 0;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.bukkit.block.Block;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.configuration.NaturalResourceAreaConfiguration;
+import team.idealstate.sugar.validate.annotation.NotNull;
+import team.idealstate.sugar.validate.annotation.Nullable;
+
+// 区域内各资源方块的存量，刷新时由写入计划初始化，之后随方块破坏与放置增减，读取均为 O(1)
+final class ResourceCounter {
+
+    private final NaturalResourceAreaConfiguration.Area area1;
+    private final String[] keys;
+    private final BlockAdapter.State[] states;
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final AtomicLongArray counts;
+    private final AtomicLong total = new AtomicLong();
+    private volatile boolean initialized = false;
+
+    ResourceCounter(@NotNull NaturalResourceAreaConfiguration.Area area1) {
+        this.area1 = area1;
+        int size = area1.getResources().size();
+        this.keys = new String[size];
+        this.states = new BlockAdapter.State[size];
+        this.counts = new AtomicLongArray(size);
+        int i = 0;
+        for (NaturalResourceAreaConfiguration.Block block : area1.getResources().keySet()) {
+            keys[i] = key(block);
+            BlockAdapter.State state = BlockAdapter.get().resolve(block);
+            states[i] = state == null || state.isAir() ? null : state;
+            indexes.put(keys[i], i);
+            i++;
+        }
+        // 省略数据值或命名空间时同样可以查询，如 minecraft:diamond_ore 与 diamond_ore
+        for (NaturalResourceAreaConfiguration.Block block : area1.getResources().keySet()) {
+            Integer index = indexes.get(key(block));
+            if (block.getData() == 0) {
+                indexes.putIfAbsent(block.getNamespace() + ":" + block.getName(), index);
+                indexes.putIfAbsent(block.getName(), index);
+            }
+            indexes.putIfAbsent(block.getName() + "$" + block.getData(), index);
+        }
+    }
+
+    @NotNull
+    static String key(@NotNull NaturalResourceAreaConfiguration.Block block) {
+        return block.getNamespace() + ":" + block.getName() + "$" + block.getData();
+    }
+
+    @NotNull
+    NaturalResourceAreaConfiguration.Area getArea() {
+        return area1;
+    }
+
+    boolean isInitialized() {
+        return initialized;
+    }
+
+    // 配置重载后沿用未变更资源的存量
+    void inherit(@NotNull ResourceCounter counter) {
+        if (!counter.initialized) {
+            return;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            Integer index = counter.indexes.get(keys[i]);
+            if (index != null) {
+                long count = counter.counts.get(index);
+                counts.set(i, count);
+                total.addAndGet(count);
+            }
+        }
+        this.initialized = true;
+    }
+
+    void apply(@NotNull Map<NaturalResourceAreaConfiguration.Block, Long> placed, boolean reset) {
+        if (reset) {
+            for (int i = 0; i < keys.length; i++) {
+                total.addAndGet(-counts.getAndSet(i, 0L));
+            }
+        }
+        for (Map.Entry<NaturalResourceAreaConfiguration.Block, Long> entry : placed.entrySet()) {
+            Integer index = indexes.get(key(entry.getKey()));
+            if (index != null) {
+                counts.addAndGet(index, entry.getValue());
+                total.addAndGet(entry.getValue());
+            }
+        }
+        this.initialized = true;
+    }
+
+    boolean add(@NotNull Block block, long delta) {
+        Object read = null;
+        for (int i = 0; i < states.length; i++) {
+            BlockAdapter.State state = states[i];
+            if (state == null) {
+                continue;
+            }
+            if (read == null) {
+                read = BlockAdapter.get().read(block);
+            }
+            if (state.matches(read)) {
+                counts.addAndGet(i, delta);
+                total.addAndGet(delta);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    Long get(@NotNull String resource) {
+        Integer index = indexes.get(resource);
+        if (index == null || !initialized) {
+            return null;
+        }
+        return Math.max(counts.get(index), 0L);
+    }
+
+    @Nullable
+    Long getTotal() {
+        return initialized ? Math.max(total.get(), 0L) : null;
+    }
+
+    @NotNull
+    Map<String, Long> getAll() {
+        if (!initialized) {
+            return Collections.emptyMap();
+        }
+        Map<String, Long> all = new LinkedHashMap<>(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            all.put(keys[i], Math.max(counts.get(i), 0L));
+        }
+        return all;
+    }
+}
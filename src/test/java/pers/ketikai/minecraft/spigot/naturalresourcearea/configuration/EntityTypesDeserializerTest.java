@@ -0,0 +1,50 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.bukkit.entity.EntityType;
+import org.junit.jupiter.api.Test;
+
+public class EntityTypesDeserializerTest {
+
+    @Test
+    public void parsesCurrentNames() {
+        assertEquals(
+                EntityType.DROPPED_ITEM,
+                NaturalResourceAreaConfiguration.EntityTypesDeserializer.parse("DROPPED_ITEM"));
+        assertEquals(
+                EntityType.EXPERIENCE_ORB,
+                NaturalResourceAreaConfiguration.EntityTypesDeserializer.parse("EXPERIENCE_ORB"));
+    }
+
+    @Test
+    public void parsesRenamedAliases() {
+        assertEquals(EntityType.DROPPED_ITEM, NaturalResourceAreaConfiguration.EntityTypesDeserializer.parse("ITEM"));
+        assertEquals(
+                EntityType.PRIMED_TNT, NaturalResourceAreaConfiguration.EntityTypesDeserializer.parse("TNT"));
+    }
+
+    @Test
+    public void skipsUnknownNames() {
+        assertNull(NaturalResourceAreaConfiguration.EntityTypesDeserializer.parse("NOT_AN_ENTITY"));
+    }
+}
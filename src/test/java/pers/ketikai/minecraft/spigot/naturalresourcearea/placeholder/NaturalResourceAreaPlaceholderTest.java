@@ -0,0 +1,62 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.placeholder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.api.NaturalResourceAreaService;
+
+public class NaturalResourceAreaPlaceholderTest {
+
+    @Test
+    public void joinsResourceKeyWithUnderscores() {
+        assertEquals("minecraft:stone", NaturalResourceAreaPlaceholder.resourceKey("minecraft:stone"));
+        assertEquals("minecraft:diamond_ore", NaturalResourceAreaPlaceholder.resourceKey("minecraft:diamond", "ore"));
+        assertEquals(
+                "minecraft:deepslate_diamond_ore",
+                NaturalResourceAreaPlaceholder.resourceKey("minecraft:deepslate", "diamond", "ore"));
+    }
+
+    @Test
+    public void queriesUnderscoreResourceKey() {
+        List<List<Object>> calls = new ArrayList<>();
+        NaturalResourceAreaService service = (NaturalResourceAreaService) Proxy.newProxyInstance(
+                NaturalResourceAreaService.class.getClassLoader(),
+                new Class<?>[] {NaturalResourceAreaService.class},
+                (proxy, method, args) -> {
+                    if (!"getResourceCount".equals(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    calls.add(Arrays.asList(args));
+                    return 42L;
+                });
+        NaturalResourceAreaPlaceholder placeholder = new NaturalResourceAreaPlaceholder();
+        placeholder.setService(service);
+
+        // %nra_resource_count_example_minecraft:diamond_ore%
+        placeholder.resourceCount2(null, "example", "minecraft:diamond", "ore");
+        assertEquals(Collections.singletonList(Arrays.<Object>asList("example", "minecraft:diamond_ore")), calls);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.junit.jupiter.api.Test;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.configuration.NaturalResourceAreaConfiguration;
+
+public class LegacyBlockAdapterTest {
+
+    private final LegacyBlockAdapter adapter = new LegacyBlockAdapter();
+
+    static NaturalResourceAreaConfiguration.Block key(String key) {
+        try {
+            return new NaturalResourceAreaConfiguration.BlockKeyDeserializer().deserializeKey(key, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Block block(Material type, int data) {
+        return (Block) Proxy.newProxyInstance(
+                Block.class.getClassLoader(), new Class<?>[] {Block.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getType":
+                            return type;
+                        case "getData":
+                            return (byte) data;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private BlockAdapter.State resolve(String key) {
+        return adapter.resolve(key(key));
+    }
+
+    @Test
+    public void resolvesNameWithData() {
+        BlockAdapter.State state = resolve("minecraft:log$1");
+        assertNotNull(state);
+        assertTrue(state.matches(adapter.read(block(Material.LOG, 1))));
+        assertFalse(state.matches(adapter.read(block(Material.LOG, 0))));
+        assertFalse(state.matches(adapter.read(block(Material.STONE, 1))));
+    }
+
+    @Test
+    public void omittedDataDefaultsToZero() {
+        BlockAdapter.State state = resolve("minecraft:stone");
+        assertNotNull(state);
+        assertTrue(state.matches(adapter.read(block(Material.STONE, 0))));
+        assertFalse(state.matches(adapter.read(block(Material.STONE, 1))));
+    }
+
+    @Test
+    public void unknownKeyResolvesToNull() {
+        assertNull(resolve("minecraft:not_a_block"));
+        assertNull(resolve("minecraft:not_a_block"));
+    }
+
+    @Test
+    public void detectsAir() {
+        BlockAdapter.State air = resolve("minecraft:air");
+        BlockAdapter.State stone = resolve("minecraft:stone");
+        assertNotNull(air);
+        assertNotNull(stone);
+        assertTrue(air.isAir());
+        assertFalse(stone.isAir());
+    }
+}
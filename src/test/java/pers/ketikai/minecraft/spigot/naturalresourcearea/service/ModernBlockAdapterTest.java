@@ -0,0 +1,214 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static pers.ketikai.minecraft.spigot.naturalresourcearea.service.LegacyBlockAdapterTest.block;
+import static pers.ketikai.minecraft.spigot.naturalresourcearea.service.LegacyBlockAdapterTest.key;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.junit.jupiter.api.Test;
+
+public class ModernBlockAdapterTest {
+
+    private final FakeModernBlockAdapter adapter = new FakeModernBlockAdapter();
+
+    @Test
+    public void resolvesPlainKeyAsLegacyFirst() {
+        // 旧版 grass 为草方块，不能被解析为新版的草丛
+        BlockAdapter.State state = adapter.resolve(key("minecraft:grass"));
+        assertNotNull(state);
+        assertEquals(Collections.singletonList("legacy:GRASS$0"), adapter.lookups);
+    }
+
+    @Test
+    public void resolvesNameWithData() {
+        assertNotNull(adapter.resolve(key("minecraft:log$1")));
+        assertEquals(Collections.singletonList("legacy:LOG$1"), adapter.lookups);
+    }
+
+    @Test
+    public void fallsBackToModernIdForNewNames() {
+        assertNotNull(adapter.resolve(key("minecraft:short_grass")));
+        assertEquals(Arrays.asList("legacy:SHORT_GRASS$0", "modern:minecraft:short_grass"), adapter.lookups);
+    }
+
+    @Test
+    public void resolvesModernKeyWithStates() {
+        assertNotNull(adapter.resolve(key("minecraft:oak_log[axis=x]")));
+        assertEquals(Collections.singletonList("modern:minecraft:oak_log[axis=x]"), adapter.lookups);
+    }
+
+    @Test
+    public void resolvesOtherNamespacesAsModern() {
+        assertNotNull(adapter.resolve(key("example:ore")));
+        assertEquals(Collections.singletonList("modern:example:ore"), adapter.lookups);
+    }
+
+    @Test
+    public void unknownKeyResolvesToNull() {
+        assertNull(adapter.resolve(key("minecraft:not_a_block")));
+        assertNull(adapter.resolve(key("minecraft:not_a_block")));
+        // 解析失败同样被缓存，不会重复查找
+        assertEquals(Arrays.asList("legacy:NOT_A_BLOCK$0", "modern:minecraft:not_a_block"), adapter.lookups);
+    }
+
+    @Test
+    public void dataValueIsNotParsedAsModernId() {
+        assertNull(adapter.resolve(key("minecraft:short_grass$1")));
+        assertEquals(Collections.singletonList("legacy:SHORT_GRASS$1"), adapter.lookups);
+    }
+
+    @Test
+    public void detectsAir() {
+        BlockAdapter.State air = adapter.resolve(key("minecraft:air"));
+        BlockAdapter.State caveAir = adapter.resolve(key("minecraft:cave_air"));
+        BlockAdapter.State stone = adapter.resolve(key("minecraft:stone"));
+        assertNotNull(air);
+        assertNotNull(caveAir);
+        assertNotNull(stone);
+        assertTrue(air.isAir());
+        assertTrue(caveAir.isAir());
+        assertFalse(stone.isAir());
+        assertFalse(ModernBlockAdapter.isAir("STAIRS"));
+    }
+
+    @Test
+    public void matchesUnsetStatesAsWildcards() {
+        BlockAdapter.State state = adapter.resolve(key("minecraft:oak_log"));
+        assertNotNull(state);
+        assertTrue(state.matches("OAK_LOG[axis=x]"));
+        assertTrue(state.matches("OAK_LOG[axis=z]"));
+        assertFalse(state.matches("BIRCH_LOG[axis=x]"));
+    }
+
+    @Test
+    public void matchesExplicitStatesOnly() {
+        BlockAdapter.State state = adapter.resolve(key("minecraft:oak_log[axis=x]"));
+        assertNotNull(state);
+        assertTrue(state.matches("OAK_LOG[axis=x]"));
+        assertFalse(state.matches("OAK_LOG[axis=z]"));
+    }
+
+    @Test
+    public void matchesLegacyDataExactly() {
+        BlockAdapter.State state = adapter.resolve(key("minecraft:log$1"));
+        assertNotNull(state);
+        assertTrue(state.matches("SPRUCE_LOG[axis=y]"));
+        assertFalse(state.matches("SPRUCE_LOG[axis=x]"));
+    }
+
+    @Test
+    public void writesResolvedData() {
+        BlockAdapter.State state = adapter.resolve(key("minecraft:oak_log[axis=x]"));
+        assertNotNull(state);
+        Block block = block(Material.AIR, 0);
+        state.write(block);
+        assertEquals(Collections.singletonList("OAK_LOG[axis=x]"), adapter.written);
+    }
+
+    // 以 材质名[状态=值,...] 字符串代替 BlockData，模拟 1.13 及以上服务端的旧版转换与新版 ID 解析
+    private static final class FakeModernBlockAdapter extends ModernBlockAdapter {
+
+        private final Map<String, String> legacy = new HashMap<>();
+        private final Map<String, String> modern = new HashMap<>();
+        private final List<String> lookups = new ArrayList<>();
+        private final List<String> written = new ArrayList<>();
+
+        private FakeModernBlockAdapter() {
+            legacy.put("AIR$0", "AIR");
+            legacy.put("STONE$0", "STONE");
+            legacy.put("GRASS$0", "GRASS_BLOCK");
+            legacy.put("LOG$1", "SPRUCE_LOG[axis=y]");
+            modern.put("minecraft:air", "AIR");
+            modern.put("minecraft:cave_air", "CAVE_AIR");
+            modern.put("minecraft:stone", "STONE");
+            modern.put("minecraft:grass", "GRASS");
+            modern.put("minecraft:short_grass", "SHORT_GRASS");
+            modern.put("minecraft:oak_log", "OAK_LOG");
+            modern.put("minecraft:oak_log[axis=x]", "OAK_LOG[axis=x]");
+            modern.put("example:ore", "EXAMPLE_ORE");
+        }
+
+        @Override
+        Object createBlockData(String key) {
+            lookups.add("modern:" + key);
+            return modern.get(key);
+        }
+
+        @Override
+        Object createLegacyBlockData(String name, byte data) {
+            lookups.add("legacy:" + name + "$" + data);
+            return legacy.get(name + "$" + data);
+        }
+
+        @Override
+        String getMaterialName(Object data) {
+            String data1 = (String) data;
+            int index = data1.indexOf('[');
+            return index < 0 ? data1 : data1.substring(0, index);
+        }
+
+        // 与 BlockData#matches 一致：仅参数中指定的状态参与比较
+        @Override
+        boolean matches(Object read, Object data) {
+            String read1 = (String) read;
+            String data1 = (String) data;
+            if (!getMaterialName(read1).equals(getMaterialName(data1))) {
+                return false;
+            }
+            Map<String, String> states = states(read1);
+            for (Map.Entry<String, String> entry : states(data1).entrySet()) {
+                if (!entry.getValue().equals(states.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void setBlockData(Block block, Object data) {
+            written.add((String) data);
+        }
+
+        private static Map<String, String> states(String data) {
+            Map<String, String> states = new HashMap<>();
+            int index = data.indexOf('[');
+            if (index < 0) {
+                return states;
+            }
+            for (String state : data.substring(index + 1, data.length() - 1).split(",")) {
+                String[] split = state.split("=", 2);
+                states.put(split[0], split[1]);
+            }
+            return states;
+        }
+    }
+}
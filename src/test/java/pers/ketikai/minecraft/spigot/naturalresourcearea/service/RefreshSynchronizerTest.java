@@ -0,0 +1,161 @@
+/*
+ *    natural-resource-area
+ *    Copyright (C) 2025  ketikai
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pers.ketikai.minecraft.spigot.naturalresourcearea.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pers.ketikai.minecraft.spigot.naturalresourcearea.configuration.NaturalResourceAreaConfiguration;
+
+public class RefreshSynchronizerTest {
+
+    private static final int LEASE = 10;
+    private static final long NOW = 1_000_000L;
+
+    private String url;
+    private RefreshSynchronizer first;
+    private RefreshSynchronizer second;
+
+    @BeforeEach
+    public void setUp() {
+        this.url = "jdbc:h2:mem:nra-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        this.first = synchronizer("first", url);
+        this.second = synchronizer("second", url);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        first.release();
+        second.release();
+    }
+
+    private static RefreshSynchronizer synchronizer(String server, String url) {
+        return new RefreshSynchronizer(
+                null,
+                new NaturalResourceAreaConfiguration.Synchronization(
+                        true, server, url, null, null, "nra_", LEASE, 20));
+    }
+
+    @Test
+    public void acquiresLeaseOnce() {
+        assertFalse(first.isReady());
+        first.synchronize(NOW);
+        second.synchronize(NOW);
+        assertTrue(first.isReady());
+        assertTrue(second.isReady());
+        assertTrue(first.isLeader());
+        assertFalse(second.isLeader());
+
+        first.synchronize(NOW + 5_000L);
+        second.synchronize(NOW + 5_000L);
+        assertTrue(first.isLeader());
+        assertFalse(second.isLeader());
+    }
+
+    @Test
+    public void takesOverExpiredLease() {
+        first.synchronize(NOW);
+        second.synchronize(NOW);
+        long expired = NOW + LEASE * 1000L + 1L;
+        second.synchronize(expired);
+        assertTrue(second.isLeader());
+        first.synchronize(expired + 1L);
+        assertFalse(first.isLeader());
+    }
+
+    @Test
+    public void handsOverReleasedLease() {
+        first.synchronize(NOW);
+        assertTrue(first.isLeader());
+        first.release();
+        assertFalse(first.isLeader());
+        second.synchronize(NOW + 1L);
+        assertTrue(second.isLeader());
+    }
+
+    @Test
+    public void publishesAndPullsCycles() {
+        first.synchronize(NOW);
+        second.synchronize(NOW);
+        assertNull(second.getCycle("example"));
+
+        first.publishCycle("example", 100L, 0L, null);
+        first.synchronize(NOW + 1L);
+        second.synchronize(NOW + 1L);
+        assertEquals(new RefreshSynchronizer.Cycle(100L, 0L, null), second.getCycle("example"));
+
+        first.publishCycle("example", 100L, 500L, true);
+        first.synchronize(NOW + 2L);
+        second.synchronize(NOW + 2L);
+        assertEquals(new RefreshSynchronizer.Cycle(100L, 500L, true), second.getCycle("example"));
+
+        first.publishCycle("example", 300L, 0L, null);
+        second.publishCycle("example", 200L, 0L, false);
+        first.synchronize(NOW + 3L);
+        second.synchronize(NOW + 3L);
+        assertEquals(new RefreshSynchronizer.Cycle(300L, 0L, null), second.getCycle("example"));
+    }
+
+    @Test
+    public void publishesAndPullsTimestamps() {
+        first.synchronize(NOW);
+        second.synchronize(NOW);
+        assertNull(second.getTimestamp("example"));
+
+        first.publish("example", 100L);
+        first.synchronize(NOW + 1L);
+        second.synchronize(NOW + 1L);
+        assertEquals(100L, second.getTimestamp("example"));
+
+        second.publish("example", 200L);
+        first.publish("example", 150L);
+        second.synchronize(NOW + 2L);
+        first.synchronize(NOW + 2L);
+        assertEquals(200L, first.getTimestamp("example"));
+
+        RefreshSynchronizer third = synchronizer("third", url);
+        try {
+            third.synchronize(NOW + 3L);
+            assertEquals(200L, third.getTimestamp("example"));
+        } finally {
+            third.release();
+        }
+    }
+
+    @Test
+    public void fallsBackToLocalWhenUnreachable() {
+        RefreshSynchronizer unreachable = synchronizer("unreachable", "jdbc:nra-unreachable:");
+        try {
+            unreachable.synchronize(NOW);
+            unreachable.synchronize(NOW);
+            assertFalse(unreachable.isReady());
+            unreachable.synchronize(NOW);
+            assertTrue(unreachable.isReady());
+            assertTrue(unreachable.isLeader());
+        } finally {
+            unreachable.release();
+        }
+    }
+}